@@ -0,0 +1,61 @@
+package com.droidlogix.dbflare.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of the decode of a DbFlare response. Only used through FlightRecorder
+ */
+@Name("com.droidlogix.dbflare.Decode")
+@Label("DbFlare Decode")
+@Category("DbFlare")
+@Description("Decode of a DbFlare response; its duration is the parse time")
+class DecodeEvent extends Event
+{
+	private static final EventType TYPE = EventType.getEventType(DecodeEvent.class);
+
+	@Label("Route")
+	@Description("Route of the call, such as /zget/{eid}")
+	String route;
+
+	@Label("Eid")
+	String eid;
+
+	@Label("Response Size")
+	@DataAmount
+	long responseBytes;
+
+	@Label("Rows")
+	@Description("Rows decoded, 1 for a single object")
+	int rows;
+
+	static Object start()
+	{
+		if (!TYPE.isEnabled())
+		{
+			return null;
+		}
+		DecodeEvent event = new DecodeEvent();
+		event.begin();
+		return event;
+	}
+
+	static void finish(Object begun, String route, String eid, long responseBytes, int rows)
+	{
+		DecodeEvent event = (DecodeEvent) begun;
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.route = route;
+			event.eid = eid;
+			event.responseBytes = responseBytes;
+			event.rows = rows;
+			event.commit();
+		}
+	}
+}
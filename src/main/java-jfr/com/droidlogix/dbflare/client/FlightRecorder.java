@@ -0,0 +1,31 @@
+package com.droidlogix.dbflare.client;
+
+/**
+ * Flight Recorder events of DbFlare calls. Loaded by FlightRecorderEvents only when jdk.jfr is present
+ */
+class FlightRecorder implements IFlightRecorder
+{
+	@Override
+	public Object beginRequest()
+	{
+		return RequestEvent.start();
+	}
+
+	@Override
+	public void commitRequest(Object event, String method, String route, String eid, int status, long requestBytes, long responseBytes)
+	{
+		RequestEvent.finish(event, method, route, eid, status, requestBytes, responseBytes);
+	}
+
+	@Override
+	public Object beginDecode()
+	{
+		return DecodeEvent.start();
+	}
+
+	@Override
+	public void commitDecode(Object event, String route, String eid, long responseBytes, int rows)
+	{
+		DecodeEvent.finish(event, route, eid, responseBytes, rows);
+	}
+}
@@ -0,0 +1,81 @@
+package com.droidlogix.dbflare.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a DbFlare call, from the call to its whole response. Only used through
+ * FlightRecorder
+ */
+@Name("com.droidlogix.dbflare.Request")
+@Label("DbFlare Request")
+@Category("DbFlare")
+@Description("A DbFlare call; its duration is the time waited for the response, including retries and waits for a connection")
+@StackTrace(false)
+class RequestEvent extends Event
+{
+	/**
+	 * Checked before an event is allocated, so a call that is not recorded allocates nothing
+	 */
+	private static final EventType TYPE = EventType.getEventType(RequestEvent.class);
+
+	@Label("Caller Thread")
+	@Description("Thread that made the call; the event thread is the one that received the response")
+	Thread callerThread;
+
+	@Label("Method")
+	String method;
+
+	@Label("Route")
+	@Description("Route of the call, such as /zget/{eid}")
+	String route;
+
+	@Label("Eid")
+	String eid;
+
+	@Label("Status")
+	@Description("Status of the response, -1 when the call failed without one")
+	int status;
+
+	@Label("Request Size")
+	@DataAmount
+	long requestBytes;
+
+	@Label("Response Size")
+	@DataAmount
+	long responseBytes;
+
+	static Object start()
+	{
+		if (!TYPE.isEnabled())
+		{
+			return null;
+		}
+		RequestEvent event = new RequestEvent();
+		event.callerThread = Thread.currentThread();
+		event.begin();
+		return event;
+	}
+
+	static void finish(Object begun, String method, String route, String eid, int status, long requestBytes, long responseBytes)
+	{
+		RequestEvent event = (RequestEvent) begun;
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.method = method;
+			event.route = route;
+			event.eid = eid;
+			event.status = status;
+			event.requestBytes = requestBytes;
+			event.responseBytes = responseBytes;
+			event.commit();
+		}
+	}
+}
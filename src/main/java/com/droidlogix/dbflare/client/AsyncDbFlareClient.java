@@ -0,0 +1,253 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.Pagination;
+import kong.unirest.HttpMethod;
+import kong.unirest.HttpResponse;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static kong.unirest.HttpMethod.*;
+
+/**
+ * IAsyncDbFlareClient backed by a DbFlareClient. Requests share the configuration of the DbFlareClient, responses are
+ * decoded on its executor so the HTTP I/O threads are never used for decoding.
+ * @author John Pili
+ */
+public class AsyncDbFlareClient implements IAsyncDbFlareClient
+{
+	/**
+	 * Decode step of a response
+	 */
+	interface Decoder<R>
+	{
+		R decode(IResultProcessor resultProcessor) throws Exception;
+	}
+
+	private final DbFlareClient dbFlareClient;
+
+	AsyncDbFlareClient(DbFlareClient dbFlareClient)
+	{
+		this.dbFlareClient = dbFlareClient;
+	}
+
+	//region TRANSACTION
+
+	@Override
+	public <T> CompletableFuture<T> zinsert(String eid, T item, Type typeOfT)
+	{
+		InsertBatcher insertBatcher = this.dbFlareClient.getInsertBatcher(eid);
+		if (insertBatcher != null)
+		{
+			return this.dbFlareClient.withDeadline(insertBatcher.add(item), "/zinsert/" + eid).thenApply(record -> this.dbFlareClient.getCodecRegistry().<T>getAdapter(typeOfT).fromJsonTree(record));
+		}
+		return this.<T>zinsert(eid, Collections.singletonList(item), typeOfT).thenApply(result -> DbFlareClient.get(result, 0));
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<String, Object>> zinsert(String eid, T item)
+	{
+		InsertBatcher insertBatcher = this.dbFlareClient.getInsertBatcher(eid);
+		if (insertBatcher != null)
+		{
+			return this.dbFlareClient.withDeadline(insertBatcher.add(item), "/zinsert/" + eid).thenApply(record -> this.dbFlareClient.getCodecRegistry().getMapAdapter().fromJsonTree(record));
+		}
+		return zinsert(eid, Collections.singletonList(item)).thenApply(result -> DbFlareClient.get(result, 0));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zinsert(String eid, List<T> item, Type typeOfT)
+	{
+		return request(POST, "/zinsert/{eid}", eid, null, null, item, resultProcessor -> resultProcessor.parseToList(typeOfT));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<Map<String, Object>>> zinsert(String eid, List<T> item)
+	{
+		return request(POST, "/zinsert/{eid}", eid, null, null, item, IResultProcessor::parseToListMap);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> zupdate(String eid, Map<String, Object> queryParams, T item, Type typeOfT)
+	{
+		if (isBulk(queryParams))
+		{
+			return this.<T>zupdate(eid, queryParams, Collections.singletonList(item), typeOfT).thenApply(result -> DbFlareClient.get(result, 0));
+		}
+		return request(PUT, "/zupdate/{eid}", eid, queryParams, null, item, resultProcessor -> resultProcessor.parse(typeOfT));
+	}
+
+	@Override
+	public <T> CompletableFuture<Map<String, Object>> zupdate(String eid, Map<String, Object> queryParams, T item)
+	{
+		if (isBulk(queryParams))
+		{
+			return zupdate(eid, queryParams, Collections.singletonList(item)).thenApply(result -> DbFlareClient.get(result, 0));
+		}
+		return request(PUT, "/zupdate/{eid}", eid, queryParams, null, item, IResultProcessor::parseToMap);
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zupdate(String eid, Map<String, Object> queryParams, List<T> item, Type typeOfT)
+	{
+		return request(PUT, "/zupdate/{eid}", eid, queryParams, null, item, resultProcessor -> resultProcessor.parseToList(typeOfT));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<Map<String, Object>>> zupdate(String eid, Map<String, Object> queryParams, List<T> item)
+	{
+		return request(PUT, "/zupdate/{eid}", eid, queryParams, null, item, IResultProcessor::parseToListMap);
+	}
+
+	@Override
+	public CompletableFuture<Void> zdelete(String eid, Map<String, Object> queryParams)
+	{
+		return request(DELETE, "/zdelete/{eid}", eid, queryParams, null, null, resultProcessor -> {
+			resultProcessor.parse();
+			return null;
+		});
+	}
+
+	//endregion
+
+	//region RETRIEVAL
+
+	@Override
+	public CompletableFuture<Map<String, Object>> zgetOne(String eid, Map<String, Object> queryParams)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, IResultProcessor::parseToMap);
+	}
+
+	@Override
+	public CompletableFuture<Map<String, Object>> zgetOne(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, queryParamsCollection, null, IResultProcessor::parseToMap);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> zgetOne(String eid, Map<String, Object> queryParams, Type typeOfT)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parse(typeOfT));
+	}
+
+	@Override
+	public <T> CompletableFuture<T> zgetOne(String eid, Map<String, Object> queryParams, IObjectAssembler objectAssembler)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parse(objectAssembler));
+	}
+
+	@Override
+	public CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, IResultProcessor::parseToListMap);
+	}
+
+	@Override
+	public CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams, Pagination pagination)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parseToListMap(pagination));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Type typeOfT)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parseToList(typeOfT));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, IObjectAssembler objectAssembler)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parseToList(objectAssembler));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Pagination pagination, Type typeOfT)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parseToList(typeOfT, pagination));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Pagination pagination, IObjectAssembler objectAssembler)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, null, null, resultProcessor -> resultProcessor.parseToList(objectAssembler, pagination));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Type typeOfT)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, queryParamsCollection, null, resultProcessor -> resultProcessor.parseToList(typeOfT));
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, IObjectAssembler objectAssembler)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, queryParamsCollection, null, resultProcessor -> resultProcessor.parseToList(objectAssembler));
+	}
+
+	@Override
+	public CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, queryParamsCollection, null, IResultProcessor::parseToListMap);
+	}
+
+	@Override
+	public <T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Pagination pagination, Type typeOfT)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, queryParamsCollection, null, resultProcessor -> resultProcessor.parseToList(typeOfT, pagination));
+	}
+
+	@Override
+	public CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Pagination pagination)
+	{
+		return request(GET, "/zget/{eid}", eid, queryParams, queryParamsCollection, null, resultProcessor -> resultProcessor.parseToListMap(pagination));
+	}
+
+	@Override
+	public CompletableFuture<String> zexecuteJSON(String eid, Map<String, Object> queryParams)
+	{
+		return request(POST, "/zexecute/{eid}", eid, queryParams, null, null, IResultProcessor::parseToJSONString);
+	}
+
+	//endregion
+
+	private <R> CompletableFuture<R> request(HttpMethod httpMethod, String url, String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Object payload, Decoder<R> decoder)
+	{
+		Map<String, String> routeParams = new HashMap<>();
+		routeParams.put("eid", eid);
+
+		CompletableFuture<HttpResponse<byte[]>> response;
+		try
+		{
+			response = this.dbFlareClient.send(httpMethod, url, routeParams, queryParams, queryParamsCollection, payload);
+		}
+		catch (Exception exception)
+		{
+			CompletableFuture<R> failed = new CompletableFuture<>();
+			failed.completeExceptionally(exception);
+			return failed;
+		}
+
+		return response.thenApplyAsync(httpResponse -> {
+			try
+			{
+				return decoder.decode(new ResultProcessor(CompletableFuture.completedFuture(httpResponse), this.dbFlareClient.getCodecRegistry(),
+						this.dbFlareClient.getMetricsRegistry(), url, eid));
+			}
+			catch (RuntimeException exception)
+			{
+				throw exception;
+			}
+			catch (Exception exception)
+			{
+				throw new CompletionException(exception);
+			}
+		}, this.dbFlareClient.getExecutorService());
+	}
+
+	private boolean isBulk(Map<String, Object> queryParams)
+	{
+		return queryParams != null && queryParams.containsKey("_kb") && ((boolean) queryParams.getOrDefault("_kb", false));
+	}
+}
@@ -0,0 +1,332 @@
+package com.droidlogix.dbflare.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.util.RawValue;
+import kong.unirest.HttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Thread-safe pipeline that collects writes of any eid and sends them together through /zbatch. Writes are
+ * serialized to bytes when they are submitted; the pending batch is sent once it holds maxRows rows or maxBytes
+ * bytes, or when its first write has waited for linger. Every submitter gets a future of its own part of the zbatch
+ * result.
+ * @author John Pili
+ */
+public class BatchWriter implements AutoCloseable
+{
+	/**
+	 * Send a zbatch payload
+	 */
+	interface BatchSender
+	{
+		CompletableFuture<HttpResponse<byte[]>> send(LinkedHashMap<String, List<RawValue>> payload) throws Exception;
+	}
+
+	/**
+	 * Serialize a row to UTF-8 JSON
+	 */
+	interface RowSerializer
+	{
+		byte[] serialize(Object row) throws Exception;
+	}
+
+	/**
+	 * JSON of a serialized row, copied as it is into the zbatch payload
+	 */
+	private static class RawRow extends JsonSerializable.Base
+	{
+		private final byte[] json;
+
+		private RawRow(byte[] json)
+		{
+			this.json = json;
+		}
+
+		@Override
+		public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException
+		{
+			Object target = generator.getOutputTarget();
+			if (!(target instanceof OutputStream))
+			{
+				generator.writeRawValue(new String(this.json, StandardCharsets.UTF_8));
+				return;
+			}
+
+			// The empty raw value writes the separator, the bytes follow it once the generator is flushed
+			generator.writeRawValue("");
+			generator.flush();
+			((OutputStream) target).write(this.json);
+		}
+
+		@Override
+		public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer) throws IOException
+		{
+			serialize(generator, serializers);
+		}
+	}
+
+	private static class Submission
+	{
+		private final String key;
+		private final int offset;
+		private final int rows;
+		private final boolean single;
+		private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+		private Submission(String key, int offset, int rows, boolean single)
+		{
+			this.key = key;
+			this.offset = offset;
+			this.rows = rows;
+			this.single = single;
+		}
+	}
+
+	private static class Batch
+	{
+		private final LinkedHashMap<String, List<RawValue>> payload = new LinkedHashMap<>();
+		private final List<Submission> submissions = new ArrayList<>();
+		private int rows;
+		private long bytes;
+	}
+
+	private final BatchSender batchSender;
+	private final RowSerializer rowSerializer;
+	private final CodecRegistry codecRegistry;
+	private final Executor executor;
+	private final int maxRows;
+	private final long maxBytes;
+	private final long lingerMillis;
+	private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+	private Batch batch = new Batch();
+	private ScheduledFuture<?> lingerTimer;
+	private boolean closed;
+
+	BatchWriter(BatchSender batchSender, RowSerializer rowSerializer, CodecRegistry codecRegistry, Executor executor, int maxRows, long maxBytes, long lingerMillis)
+	{
+		if (maxRows <= 0 || maxBytes <= 0)
+		{
+			throw new IllegalArgumentException("maxRows and maxBytes must be greater than zero");
+		}
+
+		this.batchSender = batchSender;
+		this.rowSerializer = rowSerializer;
+		this.codecRegistry = codecRegistry;
+		this.executor = executor;
+		this.maxRows = maxRows;
+		this.maxBytes = maxBytes;
+		this.lingerMillis = lingerMillis;
+	}
+
+	/**
+	 * Submit a single row
+	 * @param key key of the row in the zbatch payload
+	 * @param payload
+	 * @param <T>
+	 * @return the element of the zbatch result of this row. The future fails when the row cannot be serialized or
+	 * the writer is closed
+	 */
+	public <T> CompletableFuture<Object> submit(String key, T payload)
+	{
+		return submit(key, Collections.singletonList(payload), true);
+	}
+
+	/**
+	 * Submit rows that are sent together in the same batch
+	 * @param key key of the rows in the zbatch payload
+	 * @param payloads
+	 * @param <T>
+	 * @return the elements of the zbatch result of these rows as a List, or the whole result of the key when DbFlare
+	 * does not return one element per row. The future fails when a row cannot be serialized or the writer is closed
+	 */
+	public <T> CompletableFuture<Object> submit(String key, List<T> payloads)
+	{
+		return submit(key, payloads, false);
+	}
+
+	/**
+	 * Send the pending writes now
+	 */
+	public void flush()
+	{
+		Batch pending;
+		synchronized (this)
+		{
+			if (this.batch.submissions.isEmpty())
+			{
+				return;
+			}
+			pending = takeBatch();
+		}
+		send(pending);
+	}
+
+	/**
+	 * Send the pending writes and reject further submissions
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (this)
+		{
+			this.closed = true;
+		}
+		flush();
+	}
+
+	synchronized boolean isClosed()
+	{
+		return this.closed;
+	}
+
+	/**
+	 * @return completes once every batch sent so far has completed
+	 */
+	CompletableFuture<Void> getInFlight()
+	{
+		return CompletableFuture.allOf(this.inFlight.toArray(new CompletableFuture<?>[0]));
+	}
+
+	private <T> CompletableFuture<Object> submit(String key, List<T> payloads, boolean single)
+	{
+		List<RawValue> rows = new ArrayList<>(payloads.size());
+		long bytes = 0;
+		try
+		{
+			for (T payload : payloads)
+			{
+				byte[] json = this.rowSerializer.serialize(payload);
+				rows.add(new RawValue(new RawRow(json)));
+				bytes += json.length;
+			}
+		}
+		catch (Exception exception)
+		{
+			return failed(exception);
+		}
+
+		List<Batch> full = new ArrayList<>();
+		Submission submission;
+		synchronized (this)
+		{
+			if (this.closed)
+			{
+				return failed(new IllegalStateException("BatchWriter is closed"));
+			}
+
+			// A write that does not fit goes to the next batch, rows of a submission are never split
+			if (!this.batch.submissions.isEmpty() && (this.batch.rows + rows.size() > this.maxRows || this.batch.bytes + bytes > this.maxBytes))
+			{
+				full.add(takeBatch());
+			}
+
+			List<RawValue> keyRows = this.batch.payload.computeIfAbsent(key, item -> new ArrayList<>());
+			submission = new Submission(key, keyRows.size(), rows.size(), single);
+			keyRows.addAll(rows);
+			this.batch.submissions.add(submission);
+			this.batch.rows += rows.size();
+			this.batch.bytes += bytes;
+
+			if (this.batch.rows >= this.maxRows || this.batch.bytes >= this.maxBytes)
+			{
+				full.add(takeBatch());
+			}
+			else if (this.batch.submissions.size() == 1)
+			{
+				this.lingerTimer = DbFlareClient.getScheduler().schedule(() -> this.executor.execute(this::flush), this.lingerMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		for (Batch pending : full)
+		{
+			send(pending);
+		}
+		return submission.result;
+	}
+
+	private static CompletableFuture<Object> failed(Exception exception)
+	{
+		CompletableFuture<Object> failed = new CompletableFuture<>();
+		failed.completeExceptionally(exception);
+		return failed;
+	}
+
+	private Batch takeBatch()
+	{
+		Batch pending = this.batch;
+		this.batch = new Batch();
+		if (this.lingerTimer != null)
+		{
+			this.lingerTimer.cancel(false);
+			this.lingerTimer = null;
+		}
+		return pending;
+	}
+
+	private void send(Batch pending)
+	{
+		try
+		{
+			CompletableFuture<HttpResponse<byte[]>> sent = this.batchSender.send(pending.payload);
+			this.inFlight.add(sent);
+			sent.whenCompleteAsync((response, throwable) -> {
+				this.inFlight.remove(sent);
+				if (throwable != null)
+				{
+					fail(pending, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+					return;
+				}
+				complete(pending, response);
+			}, this.executor);
+		}
+		catch (Exception exception)
+		{
+			fail(pending, exception);
+		}
+	}
+
+	private void complete(Batch pending, HttpResponse<byte[]> response)
+	{
+		LinkedHashMap<String, Object> result;
+		try
+		{
+			result = new ResultProcessor(CompletableFuture.completedFuture(response), this.codecRegistry).parseToLinkedHashMap();
+		}
+		catch (Exception exception)
+		{
+			fail(pending, exception);
+			return;
+		}
+
+		for (Submission submission : pending.submissions)
+		{
+			Object keyResult = result != null ? result.get(submission.key) : null;
+			if (keyResult instanceof List && ((List<?>) keyResult).size() == pending.payload.get(submission.key).size())
+			{
+				List<?> records = (List<?>) keyResult;
+				submission.result.complete(submission.single ? records.get(submission.offset)
+						: new ArrayList<>(records.subList(submission.offset, submission.offset + submission.rows)));
+			}
+			else
+			{
+				submission.result.complete(keyResult);
+			}
+		}
+	}
+
+	private void fail(Batch pending, Throwable throwable)
+	{
+		for (Submission submission : pending.submissions)
+		{
+			submission.result.completeExceptionally(throwable);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.droidlogix.dbflare.client;
+
+import java.util.*;
+
+/**
+ * Identity of a zget request in the client caches. The query parameters are ordered by name so the same parameters
+ * give the same key, values of the same name keep their order because it may be significant
+ */
+class CacheKey
+{
+	private final String eid;
+	private final String request;
+
+	CacheKey(String eid, String url)
+	{
+		this.eid = eid;
+		this.request = normalize(url);
+	}
+
+	String getEid()
+	{
+		return eid;
+	}
+
+	String getRequest()
+	{
+		return request;
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (!(o instanceof CacheKey))
+		{
+			return false;
+		}
+		CacheKey cacheKey = (CacheKey) o;
+		return eid.equals(cacheKey.eid) && request.equals(cacheKey.request);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(eid, request);
+	}
+
+	private static String normalize(String url)
+	{
+		int queryStart = url.indexOf('?');
+		if (queryStart < 0)
+		{
+			return url;
+		}
+
+		List<String> parameters = new ArrayList<>(Arrays.asList(url.substring(queryStart + 1).split("&")));
+		parameters.sort(Comparator.comparing((String parameter) -> parameter.indexOf('=') < 0 ? parameter : parameter.substring(0, parameter.indexOf('='))));
+		return url.substring(0, queryStart) + "?" + String.join("&", parameters);
+	}
+}
@@ -0,0 +1,59 @@
+package com.droidlogix.dbflare.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options of the calls made through a client returned by DbFlareClient.withOptions. A call that has not completed by
+ * its deadline fails with a DeadlineExceededException and the request it has in flight is aborted, which gives the
+ * connection back to the pool instead of leaving it leased until the socket timeout.
+ */
+public class CallOptions
+{
+	static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	private long timeoutNanos = -1;
+	private long deadlineMillis = -1;
+
+	/**
+	 * Time every call may take, counted from the moment it is made
+	 * @param timeout
+	 * @param timeUnit
+	 * @return
+	 */
+	public CallOptions timeout(long timeout, TimeUnit timeUnit)
+	{
+		this.timeoutNanos = timeUnit.toNanos(timeout);
+		return this;
+	}
+
+	/**
+	 * Wall clock time by which every call must have completed, the earlier of deadline and timeout applies when both
+	 * are given
+	 * @param epochMillis milliseconds since the epoch
+	 * @return
+	 */
+	public CallOptions deadline(long epochMillis)
+	{
+		this.deadlineMillis = epochMillis;
+		return this;
+	}
+
+	/**
+	 * @return System.nanoTime() by which a call made now must complete, NO_DEADLINE when it has none
+	 */
+	long getDeadlineNanos()
+	{
+		if (this.timeoutNanos < 0 && this.deadlineMillis < 0)
+		{
+			return NO_DEADLINE;
+		}
+
+		long remainingNanos = this.timeoutNanos >= 0 ? this.timeoutNanos : Long.MAX_VALUE;
+		if (this.deadlineMillis >= 0)
+		{
+			remainingNanos = Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(this.deadlineMillis - System.currentTimeMillis()));
+		}
+		// Deadlines are compared by difference, which stays right when the sum overflows
+		return System.nanoTime() + remainingNanos;
+	}
+}
@@ -0,0 +1,310 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.exceptions.CircuitBreakerOpenException;
+import com.droidlogix.dbflare.client.exceptions.ConcurrencyLimitExceededException;
+import com.droidlogix.dbflare.client.models.CircuitBreakerEvent;
+import com.droidlogix.dbflare.client.models.CircuitBreakerEvent.State;
+import kong.unirest.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers of the endpoints of a client, one per path such as /zget/jobsheets. A breaker records the outcome
+ * of the last windowSize calls of its endpoint and opens once the share of failed (I/O error or 5xx) or slow calls
+ * reaches its threshold. While open, calls fail fast with a CircuitBreakerOpenException instead of tying up a
+ * connection and a waiting caller. After openDuration a few probe calls are let through: the breaker closes when they
+ * all succeed and opens again otherwise. Only the outcome of a call admitted in the current state counts, a call that
+ * completes after the breaker changed state is ignored.
+ */
+class CircuitBreaker
+{
+	private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	/**
+	 * Admission of a call, tied to the state period it was admitted in
+	 */
+	private static class Permit
+	{
+		private final long generation;
+		private final boolean probe;
+
+		private Permit(long generation, boolean probe)
+		{
+			this.generation = generation;
+			this.probe = probe;
+		}
+	}
+
+	private class Endpoint
+	{
+		private final String endpoint;
+		private final boolean[] failed = new boolean[windowSize];
+		private final boolean[] slow = new boolean[windowSize];
+		private State state = State.CLOSED;
+		private int next;
+		private int calls;
+		private int failedCalls;
+		private int slowCalls;
+		private long openedAt;
+		private int probePermits;
+		private int probesSucceeded;
+		private long generation;
+
+		private Endpoint(String endpoint)
+		{
+			this.endpoint = endpoint;
+		}
+
+		/**
+		 * @return the permit of the call, null when it is rejected
+		 */
+		private Permit tryAcquire()
+		{
+			CircuitBreakerEvent event = null;
+			Permit permit;
+			synchronized (this)
+			{
+				if (this.state == State.OPEN && System.nanoTime() - this.openedAt >= openDurationNanos)
+				{
+					event = transition(State.HALF_OPEN);
+				}
+
+				switch (this.state)
+				{
+					case OPEN:
+					{
+						permit = null;
+						break;
+					}
+					case HALF_OPEN:
+					{
+						permit = this.probePermits > 0 ? new Permit(this.generation, true) : null;
+						if (permit != null)
+						{
+							this.probePermits--;
+						}
+						break;
+					}
+					default:
+					{
+						permit = new Permit(this.generation, false);
+						break;
+					}
+				}
+			}
+			publish(event);
+			return permit;
+		}
+
+		private void onComplete(Permit permit, long durationNanos, boolean failure)
+		{
+			boolean slowCall = durationNanos >= slowCallDurationNanos;
+			CircuitBreakerEvent event = null;
+			synchronized (this)
+			{
+				if (permit.generation != this.generation)
+				{
+					// Calls admitted in an earlier state, such as before the breaker opened, are not recorded
+					return;
+				}
+
+				if (permit.probe)
+				{
+					if (failure || slowCall)
+					{
+						event = transition(State.OPEN);
+					}
+					else if (++this.probesSucceeded >= probes)
+					{
+						event = transition(State.CLOSED);
+					}
+				}
+				else
+				{
+					record(failure, slowCall);
+					if (this.calls >= minimumCalls && (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold))
+					{
+						event = transition(State.OPEN);
+					}
+				}
+			}
+			publish(event);
+		}
+
+		/**
+		 * Give back the probe permit of a call that was never sent
+		 */
+		private synchronized void onRejected(Permit permit)
+		{
+			if (permit.probe && permit.generation == this.generation)
+			{
+				this.probePermits++;
+			}
+		}
+
+		private void record(boolean failure, boolean slowCall)
+		{
+			if (this.calls == windowSize)
+			{
+				this.failedCalls -= this.failed[this.next] ? 1 : 0;
+				this.slowCalls -= this.slow[this.next] ? 1 : 0;
+			}
+			else
+			{
+				this.calls++;
+			}
+			this.failed[this.next] = failure;
+			this.slow[this.next] = slowCall;
+			this.failedCalls += failure ? 1 : 0;
+			this.slowCalls += slowCall ? 1 : 0;
+			this.next = (this.next + 1) % windowSize;
+		}
+
+		private CircuitBreakerEvent transition(State toState)
+		{
+			CircuitBreakerEvent event = new CircuitBreakerEvent(this.endpoint, this.state, toState, getFailureRate(), getSlowCallRate(), System.currentTimeMillis());
+			this.state = toState;
+			this.generation++;
+			this.probePermits = probes;
+			this.probesSucceeded = 0;
+			if (toState == State.OPEN)
+			{
+				this.openedAt = System.nanoTime();
+			}
+			else if (toState == State.CLOSED)
+			{
+				// A closed breaker starts with a fresh window
+				Arrays.fill(this.failed, false);
+				Arrays.fill(this.slow, false);
+				this.next = 0;
+				this.calls = 0;
+				this.failedCalls = 0;
+				this.slowCalls = 0;
+			}
+			return event;
+		}
+
+		private float getFailureRate()
+		{
+			return this.calls > 0 ? this.failedCalls * 100f / this.calls : 0;
+		}
+
+		private float getSlowCallRate()
+		{
+			return this.calls > 0 ? this.slowCalls * 100f / this.calls : 0;
+		}
+	}
+
+	private final float failureRateThreshold;
+	private final float slowCallRateThreshold;
+	private final long slowCallDurationNanos;
+	private final long openDurationNanos;
+	private final int windowSize;
+	private final int minimumCalls;
+	private final int probes;
+	private final List<Consumer<CircuitBreakerEvent>> listeners;
+	private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	CircuitBreaker(float failureRateThreshold, float slowCallRateThreshold, long slowCallDurationNanos, long openDurationNanos,
+			int windowSize, int minimumCalls, int probes, List<Consumer<CircuitBreakerEvent>> listeners)
+	{
+		if (windowSize <= 0 || probes <= 0)
+		{
+			throw new IllegalArgumentException("windowSize and probes must be greater than zero");
+		}
+
+		this.failureRateThreshold = failureRateThreshold;
+		this.slowCallRateThreshold = slowCallRateThreshold;
+		this.slowCallDurationNanos = slowCallDurationNanos;
+		this.openDurationNanos = openDurationNanos;
+		this.windowSize = windowSize;
+		this.minimumCalls = Math.min(minimumCalls, windowSize);
+		this.probes = probes;
+		this.listeners = new ArrayList<>(listeners);
+	}
+
+	/**
+	 * @param endpoint path of the request
+	 * @param call sends the request, only called when the breaker of the endpoint lets it through
+	 * @return the response, or a future failed with a CircuitBreakerOpenException
+	 */
+	CompletableFuture<HttpResponse<byte[]>> execute(String endpoint, Supplier<CompletableFuture<HttpResponse<byte[]>>> call)
+	{
+		Endpoint breaker = this.endpoints.computeIfAbsent(endpoint, Endpoint::new);
+		Permit permit = breaker.tryAcquire();
+		if (permit == null)
+		{
+			CompletableFuture<HttpResponse<byte[]>> failed = new CompletableFuture<>();
+			failed.completeExceptionally(new CircuitBreakerOpenException(endpoint));
+			return failed;
+		}
+
+		long start = System.nanoTime();
+		CompletableFuture<HttpResponse<byte[]>> future;
+		try
+		{
+			future = call.get();
+		}
+		catch (RuntimeException exception)
+		{
+			breaker.onComplete(permit, System.nanoTime() - start, true);
+			throw exception;
+		}
+		return future.whenComplete((response, throwable) -> {
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+			if (cause instanceof ConcurrencyLimitExceededException || cause instanceof CancellationException)
+			{
+				// Never sent or given up, such as the loser of a hedged read, it says nothing about the endpoint
+				breaker.onRejected(permit);
+				return;
+			}
+			breaker.onComplete(permit, System.nanoTime() - start, throwable != null || response.getStatus() >= 500);
+		});
+	}
+
+	/**
+	 * @return state of every endpoint called so far
+	 */
+	Map<String, State> getStates()
+	{
+		Map<String, State> states = new TreeMap<>();
+		for (Endpoint breaker : this.endpoints.values())
+		{
+			synchronized (breaker)
+			{
+				states.put(breaker.endpoint, breaker.state);
+			}
+		}
+		return states;
+	}
+
+	private void publish(CircuitBreakerEvent event)
+	{
+		if (event == null)
+		{
+			return;
+		}
+
+		logger.info("Circuit breaker of {} changed from {} to {}", event.getEndpoint(), event.getFromState(), event.getToState());
+		for (Consumer<CircuitBreakerEvent> listener : this.listeners)
+		{
+			try
+			{
+				listener.accept(event);
+			}
+			catch (RuntimeException exception)
+			{
+				logger.warn("Circuit breaker listener failed", exception);
+			}
+		}
+	}
+}
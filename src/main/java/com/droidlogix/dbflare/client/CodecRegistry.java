@@ -0,0 +1,233 @@
+package com.droidlogix.dbflare.client;
+
+import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Client scoped, thread-safe set of codecs used to decode DbFlare responses. The underlying Gson is built once
+ * and the resolved TypeAdapter of every Type is cached, so decoding does not pay for adapter lookup on every call.
+ * @author John Pili
+ */
+public class CodecRegistry
+{
+	public static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSSZ";
+
+	private static final CodecRegistry DEFAULT = new Builder().build();
+
+	private final Gson gson;
+	private final ConcurrentMap<Type, TypeAdapter<?>> typeAdapters = new ConcurrentHashMap<>();
+	private final TypeAdapter<Map<String, Object>> mapAdapter;
+	private final TypeAdapter<LinkedHashMap<String, Object>> linkedHashMapAdapter;
+	private final TypeAdapter<JsonElement> jsonElementAdapter;
+
+	//region BUILDER
+
+	public static class Builder
+	{
+		private String datePattern = DEFAULT_DATE_PATTERN;
+		private final List<Object[]> typeAdapters = new ArrayList<>();
+		private final List<Object[]> typeHierarchyAdapters = new ArrayList<>();
+		private final List<TypeAdapterFactory> typeAdapterFactories = new ArrayList<>();
+
+		/**
+		 * Pattern of the default Date codec
+		 * @param datePattern
+		 * @return
+		 */
+		public Builder datePattern(String datePattern)
+		{
+			this.datePattern = datePattern;
+			return this;
+		}
+
+		/**
+		 * Register a TypeAdapter, JsonSerializer, JsonDeserializer or InstanceCreator. User adapters take precedence over the defaults
+		 * @param type
+		 * @param typeAdapter
+		 * @return
+		 */
+		public Builder registerTypeAdapter(Type type, Object typeAdapter)
+		{
+			this.typeAdapters.add(new Object[] { type, typeAdapter });
+			return this;
+		}
+
+		public Builder registerTypeHierarchyAdapter(Class<?> baseType, Object typeAdapter)
+		{
+			this.typeHierarchyAdapters.add(new Object[] { baseType, typeAdapter });
+			return this;
+		}
+
+		public Builder registerTypeAdapterFactory(TypeAdapterFactory typeAdapterFactory)
+		{
+			this.typeAdapterFactories.add(typeAdapterFactory);
+			return this;
+		}
+
+		public CodecRegistry build()
+		{
+			GsonBuilder gsonBuilder = new GsonBuilder().disableHtmlEscaping()
+					.registerTypeAdapter(Date.class, new DateTypeAdapter(this.datePattern))
+					.registerTypeAdapter(byte[].class, new ByteArrayToBase64TypeAdapter());
+			for (Object[] item : this.typeAdapters)
+			{
+				gsonBuilder.registerTypeAdapter((Type) item[0], item[1]);
+			}
+			for (Object[] item : this.typeHierarchyAdapters)
+			{
+				gsonBuilder.registerTypeHierarchyAdapter((Class<?>) item[0], item[1]);
+			}
+			for (TypeAdapterFactory item : this.typeAdapterFactories)
+			{
+				gsonBuilder.registerTypeAdapterFactory(item);
+			}
+			return new CodecRegistry(gsonBuilder.create());
+		}
+	}
+
+	//endregion
+
+	private CodecRegistry(Gson gson)
+	{
+		this.gson = gson;
+		this.mapAdapter = gson.getAdapter(new TypeToken<Map<String, Object>>()
+		{
+		});
+		this.linkedHashMapAdapter = gson.getAdapter(new TypeToken<LinkedHashMap<String, Object>>()
+		{
+		});
+		this.jsonElementAdapter = gson.getAdapter(JsonElement.class);
+	}
+
+	/**
+	 * Registry with only the default Date and byte[] codecs
+	 * @return
+	 */
+	public static CodecRegistry getDefault()
+	{
+		return DEFAULT;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> getAdapter(Type typeOfT)
+	{
+		TypeAdapter<?> typeAdapter = this.typeAdapters.get(typeOfT);
+		if (typeAdapter == null)
+		{
+			typeAdapter = this.typeAdapters.computeIfAbsent(typeOfT, key -> this.gson.getAdapter(TypeToken.get(key)));
+		}
+		return (TypeAdapter<T>) typeAdapter;
+	}
+
+	public TypeAdapter<Map<String, Object>> getMapAdapter()
+	{
+		return mapAdapter;
+	}
+
+	public TypeAdapter<LinkedHashMap<String, Object>> getLinkedHashMapAdapter()
+	{
+		return linkedHashMapAdapter;
+	}
+
+	public TypeAdapter<JsonElement> getJsonElementAdapter()
+	{
+		return jsonElementAdapter;
+	}
+
+	public Gson getGson()
+	{
+		return gson;
+	}
+
+	//region DEFAULT CODECS
+
+	/**
+	 * Reads dates written in the DbFlare format. Unparseable or blank values are decoded as null
+	 */
+	private static class DateTypeAdapter extends TypeAdapter<Date>
+	{
+		private final ThreadLocal<DateFormat> dateFormat;
+
+		private DateTypeAdapter(String pattern)
+		{
+			this.dateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern));
+		}
+
+		@Override
+		public void write(JsonWriter out, Date value) throws IOException
+		{
+			if (value == null)
+			{
+				out.nullValue();
+				return;
+			}
+			out.value(this.dateFormat.get().format(value));
+		}
+
+		@Override
+		public Date read(JsonReader in) throws IOException
+		{
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+				return null;
+			}
+
+			String dateString = in.nextString();
+			if (StringUtils.isBlank(dateString))
+			{
+				return null;
+			}
+
+			try
+			{
+				return this.dateFormat.get().parse(dateString);
+			}
+			catch (ParseException parseException)
+			{
+				return null;
+			}
+		}
+	}
+
+	//CODE FROM or BASED: https://gist.github.com/orip/3635246
+	private static class ByteArrayToBase64TypeAdapter extends TypeAdapter<byte[]>
+	{
+		@Override
+		public void write(JsonWriter out, byte[] value) throws IOException
+		{
+			if (value == null)
+			{
+				out.nullValue();
+				return;
+			}
+			out.value(Base64.getEncoder().encodeToString(value));
+		}
+
+		@Override
+		public byte[] read(JsonReader in) throws IOException
+		{
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+				return null;
+			}
+			return Base64.getDecoder().decode(in.nextString());
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,227 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.exceptions.ConcurrencyLimitExceededException;
+import com.droidlogix.dbflare.client.models.ConcurrencyLimitStats;
+import kong.unirest.HttpResponse;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits the requests a client has in flight with an AIMD limit driven by latency. The limit grows by one request per
+ * limit's worth of responses while responses stay within tolerance times the lowest recent latency, and shrinks by
+ * backoffRatio when a response is slower than that, times out or is answered with 429 or 503. Requests beyond the
+ * limit wait in a bounded queue for a slot and are rejected when the queue is full or their wait is over.
+ */
+class ConcurrencyLimiter
+{
+	private static final double TOLERANCE = 2.0;
+	private static final double BACKOFF_RATIO = 0.9;
+	private static final int MIN_LATENCY_PERIOD = 500;
+
+	private static class Waiter
+	{
+		private final Supplier<CompletableFuture<HttpResponse<byte[]>>> call;
+		private final CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+		private ScheduledFuture<?> timeout;
+
+		private Waiter(Supplier<CompletableFuture<HttpResponse<byte[]>>> call)
+		{
+			this.call = call;
+		}
+	}
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final int maxQueued;
+	private final long maxWaitMillis;
+	private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+	private double limit;
+	private int inFlight;
+	private long rejected;
+	private long minLatencyNanos = Long.MAX_VALUE;
+	private long periodMinLatencyNanos = Long.MAX_VALUE;
+	private int periodSamples;
+	private long lastDecrease = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+	ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueued, long maxWaitMillis)
+	{
+		if (minLimit <= 0 || minLimit > maxLimit)
+		{
+			throw new IllegalArgumentException("minLimit must be greater than zero and at most maxLimit");
+		}
+
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.maxQueued = maxQueued;
+		this.maxWaitMillis = maxWaitMillis;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+	}
+
+	/**
+	 * @param call sends the request once a slot is free
+	 * @return the response, or a future failed with a ConcurrencyLimitExceededException
+	 */
+	CompletableFuture<HttpResponse<byte[]>> execute(Supplier<CompletableFuture<HttpResponse<byte[]>>> call)
+	{
+		synchronized (this)
+		{
+			if (this.inFlight < (int) this.limit && this.queue.isEmpty())
+			{
+				this.inFlight++;
+			}
+			else if (this.queue.size() < this.maxQueued)
+			{
+				Waiter waiter = new Waiter(call);
+				this.queue.add(waiter);
+				waiter.timeout = DbFlareClient.getScheduler().schedule(() -> expire(waiter), this.maxWaitMillis, TimeUnit.MILLISECONDS);
+				return waiter.result;
+			}
+			else
+			{
+				this.rejected++;
+				return rejected((int) this.limit, "the queue is full");
+			}
+		}
+		return start(call);
+	}
+
+	private void expire(Waiter waiter)
+	{
+		int currentLimit;
+		synchronized (this)
+		{
+			if (!this.queue.remove(waiter))
+			{
+				return;
+			}
+			this.rejected++;
+			currentLimit = (int) this.limit;
+		}
+		waiter.result.completeExceptionally(new ConcurrencyLimitExceededException(currentLimit, "no slot became free within " + this.maxWaitMillis + " ms"));
+	}
+
+	synchronized ConcurrencyLimitStats getStats()
+	{
+		return new ConcurrencyLimitStats((int) this.limit, this.inFlight, this.queue.size(), this.rejected,
+				this.minLatencyNanos != Long.MAX_VALUE ? TimeUnit.NANOSECONDS.toMicros(this.minLatencyNanos) : -1);
+	}
+
+	private CompletableFuture<HttpResponse<byte[]>> start(Supplier<CompletableFuture<HttpResponse<byte[]>>> call)
+	{
+		long start = System.nanoTime();
+		CompletableFuture<HttpResponse<byte[]>> future;
+		try
+		{
+			future = call.get();
+		}
+		catch (RuntimeException exception)
+		{
+			release(System.nanoTime() - start, false);
+			throw exception;
+		}
+		return future.whenComplete((response, throwable) -> {
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+			// Only overload counts as a drop, a refused connection says nothing about the load of the server
+			boolean dropped = isTimeout(cause) || (response != null && (response.getStatus() == 429 || response.getStatus() == 503));
+			release(System.nanoTime() - start, dropped);
+		});
+	}
+
+	private void release(long latencyNanos, boolean dropped)
+	{
+		List<Waiter> ready = new ArrayList<>();
+		synchronized (this)
+		{
+			this.inFlight--;
+			adjust(latencyNanos, dropped);
+			Iterator<Waiter> iterator = this.queue.iterator();
+			while (this.inFlight < (int) this.limit && iterator.hasNext())
+			{
+				ready.add(iterator.next());
+				iterator.remove();
+				this.inFlight++;
+			}
+		}
+
+		for (Waiter waiter : ready)
+		{
+			waiter.timeout.cancel(false);
+			try
+			{
+				start(waiter.call).whenComplete((response, throwable) -> {
+					if (throwable != null)
+					{
+						waiter.result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+					}
+					else
+					{
+						waiter.result.complete(response);
+					}
+				});
+			}
+			catch (RuntimeException exception)
+			{
+				waiter.result.completeExceptionally(exception);
+			}
+		}
+	}
+
+	/**
+	 * AIMD step. The lowest latency is measured over periods of MIN_LATENCY_PERIOD responses so it follows the server
+	 * when its unloaded latency changes. Decreases are spaced by the latency of the response that triggers them, so a
+	 * burst of slow responses to the same overload shrinks the limit once
+	 */
+	private void adjust(long latencyNanos, boolean dropped)
+	{
+		this.periodMinLatencyNanos = Math.min(this.periodMinLatencyNanos, latencyNanos);
+		if (++this.periodSamples >= MIN_LATENCY_PERIOD || this.minLatencyNanos == Long.MAX_VALUE)
+		{
+			this.minLatencyNanos = this.periodMinLatencyNanos;
+			this.periodMinLatencyNanos = Long.MAX_VALUE;
+			this.periodSamples = 0;
+		}
+
+		long now = System.nanoTime();
+		if (dropped || latencyNanos > TOLERANCE * this.minLatencyNanos)
+		{
+			if (now - this.lastDecrease > latencyNanos)
+			{
+				this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+				this.lastDecrease = now;
+			}
+		}
+		else if (this.inFlight + 1 >= this.limit / 2)
+		{
+			// Only grow while the limit is actually used
+			this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+		}
+	}
+
+	private static boolean isTimeout(Throwable throwable)
+	{
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause())
+		{
+			if (cause instanceof SocketTimeoutException)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static CompletableFuture<HttpResponse<byte[]>> rejected(int limit, String reason)
+	{
+		CompletableFuture<HttpResponse<byte[]>> rejected = new CompletableFuture<>();
+		rejected.completeExceptionally(new ConcurrencyLimitExceededException(limit, reason));
+		return rejected;
+	}
+}
@@ -0,0 +1,294 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.ConnectionPoolStats;
+import kong.unirest.UnirestInstance;
+import kong.unirest.apache.ApacheAsyncClient;
+import kong.unirest.apache.ApacheClient;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContextBuilder;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Connection pools and UnirestInstance owned by a single DbFlareClient. Asynchronous requests and streamed reads use
+ * separate pools, both are bounded by the same limits and evicted by the same idle policy.
+ */
+class ConnectionPool implements AutoCloseable
+{
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private final int maxConnections;
+	private final PoolingNHttpClientConnectionManager asyncConnectionManager;
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final UnirestInstance unirestInstance;
+	private final ScheduledFuture<?> eviction;
+	private final ThreadLocal<List<Future<?>>> exchanges = new ThreadLocal<>();
+	private final ThreadLocal<List<CompletableFuture<?>>> attempts = new ThreadLocal<>();
+
+	ConnectionPool(int maxConnections, int maxConnectionsPerRoute, long keepAliveMillis, long idleEvictionMillis, int connectTimeout, int socketTimeout, boolean verifySsl) throws Exception
+	{
+		this.maxConnections = maxConnections;
+		SSLContext sslContext = verifySsl ? SSLContext.getDefault() : new SSLContextBuilder().loadTrustMaterial(null, (chain, authType) -> true).build();
+		ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+			long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return duration > 0 ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+		};
+
+		DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setSoTimeout(socketTimeout)
+				.build(), daemonThreadFactory("dbflare-io"));
+		this.asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor, RegistryBuilder.<SchemeIOSessionStrategy>create()
+				.register("http", NoopIOSessionStrategy.INSTANCE)
+				.register("https", verifySsl ? new SSLIOSessionStrategy(sslContext) : new SSLIOSessionStrategy(sslContext, NoopHostnameVerifier.INSTANCE))
+				.build());
+		this.asyncConnectionManager.setMaxTotal(maxConnections);
+		this.asyncConnectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+		this.connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", verifySsl ? new SSLConnectionSocketFactory(sslContext) : new SSLConnectionSocketFactory(sslContext, NoopHostnameVerifier.INSTANCE))
+				.build());
+		this.connectionManager.setMaxTotal(maxConnections);
+		this.connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+		this.connectionManager.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(socketTimeout).build());
+
+		// Clients are only built on the first request, Unirest applies the timeouts to every request. Accept-Encoding
+		// is sent by DbFlareClient as configured
+		kong.unirest.Config config = new kong.unirest.Config()
+				.connectTimeout(connectTimeout)
+				.socketTimeout(socketTimeout)
+				.verifySsl(verifySsl)
+				.requestCompression(false);
+		config.asyncClient(unirestConfig -> {
+			CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+					.setConnectionManager(this.asyncConnectionManager)
+					.setKeepAliveStrategy(keepAliveStrategy)
+					.setThreadFactory(daemonThreadFactory("dbflare-io-dispatcher"))
+					.build();
+			client.start();
+			return new ApacheAsyncClient(new AbortableAsyncClient(client), unirestConfig);
+		});
+		config.httpClient(unirestConfig -> {
+			CloseableHttpClient client = HttpClients.custom()
+					.setConnectionManager(this.connectionManager)
+					.setKeepAliveStrategy(keepAliveStrategy)
+					.build();
+			return new ApacheClient(client, unirestConfig);
+		});
+		this.unirestInstance = new UnirestInstance(config);
+
+		this.eviction = DbFlareClient.getScheduler().scheduleWithFixedDelay(() -> {
+			this.asyncConnectionManager.closeExpiredConnections();
+			this.asyncConnectionManager.closeIdleConnections(idleEvictionMillis, TimeUnit.MILLISECONDS);
+			this.connectionManager.closeExpiredConnections();
+			this.connectionManager.closeIdleConnections(idleEvictionMillis, TimeUnit.MILLISECONDS);
+		}, idleEvictionMillis, Math.max(1000, idleEvictionMillis / 2), TimeUnit.MILLISECONDS);
+	}
+
+	UnirestInstance getUnirestInstance()
+	{
+		return unirestInstance;
+	}
+
+	/**
+	 * Send a request with a sender that calls the asynchronous client on the calling thread, such as asObjectAsync.
+	 * When the returned future is failed or cancelled before the response arrived, e.g. at the deadline of its call,
+	 * the exchange is aborted: its connection is closed and the lease given back to the pool
+	 * @param sender
+	 * @return
+	 */
+	<T> CompletableFuture<T> abortable(Supplier<CompletableFuture<T>> sender)
+	{
+		List<Future<?>> started = new ArrayList<>(1);
+		List<Future<?>> outer = this.exchanges.get();
+		this.exchanges.set(started);
+		CompletableFuture<T> future;
+		try
+		{
+			future = sender.get();
+		}
+		finally
+		{
+			this.exchanges.set(outer);
+		}
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		future.whenComplete((value, throwable) -> {
+			if (throwable != null)
+			{
+				result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+			}
+			else
+			{
+				result.complete(value);
+			}
+		});
+		result.whenComplete((value, throwable) -> {
+			if (throwable != null)
+			{
+				// A no-op for an exchange that already completed
+				started.forEach(exchange -> exchange.cancel(true));
+			}
+		});
+
+		List<CompletableFuture<?>> attempts = this.attempts.get();
+		if (attempts != null)
+		{
+			attempts.add(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Send a request that can be given up, such as a hedged read. When the returned future is cancelled, every
+	 * abortable exchange the sender started on the calling thread fails with a CancellationException and is aborted.
+	 * An exchange started later on another thread, e.g. after waiting for a concurrency slot, is only discarded
+	 * @param sender
+	 * @return
+	 */
+	<T> CompletableFuture<T> cancellable(Supplier<CompletableFuture<T>> sender)
+	{
+		List<CompletableFuture<?>> started = new ArrayList<>(1);
+		List<CompletableFuture<?>> outer = this.attempts.get();
+		this.attempts.set(started);
+		CompletableFuture<T> future;
+		try
+		{
+			future = sender.get();
+		}
+		finally
+		{
+			this.attempts.set(outer);
+		}
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		future.whenComplete((value, throwable) -> {
+			if (throwable != null)
+			{
+				result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+			}
+			else
+			{
+				result.complete(value);
+			}
+		});
+		result.whenComplete((value, throwable) -> {
+			if (result.isCancelled())
+			{
+				started.forEach(attempt -> attempt.completeExceptionally(new CancellationException("Request was given up")));
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Connections of the pool used by every request except streamed reads
+	 */
+	ConnectionPoolStats getStats()
+	{
+		return toConnectionPoolStats(this.asyncConnectionManager.getTotalStats());
+	}
+
+	/**
+	 * Connections of the pool used by zgetStream and zgetPublisher
+	 */
+	ConnectionPoolStats getStreamStats()
+	{
+		return toConnectionPoolStats(this.connectionManager.getTotalStats());
+	}
+
+	@Override
+	public void close()
+	{
+		this.eviction.cancel(false);
+		this.unirestInstance.shutDown(false);
+	}
+
+	private ConnectionPoolStats toConnectionPoolStats(PoolStats poolStats)
+	{
+		return new ConnectionPoolStats(poolStats.getLeased(), poolStats.getPending(), poolStats.getAvailable(), this.maxConnections);
+	}
+
+	/**
+	 * Client that hands the future of every exchange it starts to the abortable call running on the same thread.
+	 * Unirest keeps that future to itself, yet cancelling it is the only way to abort the exchange
+	 */
+	private class AbortableAsyncClient extends CloseableHttpAsyncClient
+	{
+		private final CloseableHttpAsyncClient client;
+
+		private AbortableAsyncClient(CloseableHttpAsyncClient client)
+		{
+			this.client = client;
+		}
+
+		@Override
+		public <T> Future<T> execute(HttpAsyncRequestProducer requestProducer, HttpAsyncResponseConsumer<T> responseConsumer, HttpContext context, FutureCallback<T> callback)
+		{
+			Future<T> exchange = this.client.execute(requestProducer, responseConsumer, context, callback);
+			List<Future<?>> started = exchanges.get();
+			if (started != null)
+			{
+				started.add(exchange);
+			}
+			return exchange;
+		}
+
+		@Override
+		public boolean isRunning()
+		{
+			return this.client.isRunning();
+		}
+
+		@Override
+		public void start()
+		{
+			this.client.start();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			this.client.close();
+		}
+	}
+
+	private static ThreadFactory daemonThreadFactory(String name)
+	{
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -1,14 +1,52 @@
 package com.droidlogix.dbflare.client;
 
+import com.droidlogix.dbflare.client.exceptions.DeadlineExceededException;
+import com.droidlogix.dbflare.client.models.BulkResult;
+import com.droidlogix.dbflare.client.models.CircuitBreakerEvent;
+import com.droidlogix.dbflare.client.models.ChunkResult;
+import com.droidlogix.dbflare.client.models.CompressionStats;
+import com.droidlogix.dbflare.client.models.ConcurrencyLimitStats;
+import com.droidlogix.dbflare.client.models.ConnectionPoolStats;
 import com.droidlogix.dbflare.client.models.Pagination;
+import com.droidlogix.dbflare.client.models.ReplicaStats;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheStats;
+import com.google.common.io.ByteStreams;
+import com.google.gson.TypeAdapter;
 import kong.unirest.HttpMethod;
 import kong.unirest.HttpRequest;
 import kong.unirest.HttpRequestWithBody;
-import kong.unirest.Unirest;
-
+import kong.unirest.HttpResponse;
+import kong.unirest.RawResponse;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static kong.unirest.HttpMethod.*;
 
@@ -16,12 +54,65 @@ import static kong.unirest.HttpMethod.*;
  * @author John Pili
  * @since 2016-11-15
  */
-public class DbFlareClient implements IDbFlareClient, IRestClient
+public class DbFlareClient implements IDbFlareClient, IRestClient, AutoCloseable
 {
+	private static final Logger logger = LoggerFactory.getLogger(DbFlareClient.class);
+
+	public static final int DEFAULT_STREAM_BUFFER_SIZE = 256;
+	public static final String DEFAULT_SKIP_PARAMETER = "_skip";
+	public static final String DEFAULT_PAGE_SIZE_PARAMETER = "_take";
+	public static final int DEFAULT_MAX_CONNECTIONS = 200;
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 200;
+	public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+	public static final long DEFAULT_IDLE_EVICTION_MILLIS = 30000;
+	public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+	public static final int DEFAULT_SOCKET_TIMEOUT = 60000;
+	public static final long DEFAULT_CACHE_MAXIMUM_WEIGHT = 64 * 1024 * 1024;
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+	public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 100;
+	public static final long DEFAULT_MAX_BACKOFF_MILLIS = 2000;
+	public static final double DEFAULT_RETRY_BUDGET_RATIO = 0.1;
+	public static final int DEFAULT_RETRY_BUDGET_TOKENS = 10;
+	public static final int DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+	public static final int DEFAULT_CIRCUIT_BREAKER_MINIMUM_CALLS = 10;
+	public static final int DEFAULT_CIRCUIT_BREAKER_PROBES = 3;
+	public static final int DEFAULT_CONCURRENCY_QUEUE_SIZE = 1000;
+	public static final long DEFAULT_CONCURRENCY_QUEUE_WAIT_MILLIS = 1000;
+	public static final int DEFAULT_EJECT_AFTER = 3;
+	public static final String DEFAULT_HEALTH_CHECK_PATH = "/";
+	public static final long DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS = 5000;
+
 	private ObjectMapper objectMapper;
 	private String baseURL;
 	private boolean isKeyRequired;
 	private String apiKey;
+	private CodecRegistry codecRegistry;
+	private ExecutorService executorService;
+	private int streamBufferSize;
+	private String skipParameter;
+	private String pageSizeParameter;
+	private IAsyncDbFlareClient asyncDbFlareClient;
+	private ConnectionPool connectionPool;
+	private Set<String> coalescedEids;
+	private SingleFlight<HttpResponse<byte[]>> singleFlight;
+	private ResultCache resultCache;
+	private ValidatorCache validatorCache;
+	private Map<String, InsertBatcher> insertBatchers;
+	private Set<BatchWriter> batchWriters;
+	private RetryPolicy retryPolicy;
+	private CircuitBreaker circuitBreaker;
+	private RequestHedger requestHedger;
+	private ConcurrencyLimiter concurrencyLimiter;
+	private LoadBalancer loadBalancer;
+	private int compressionThreshold;
+	private boolean acceptCompressedResponses;
+	private LongAdder requestBytes;
+	private LongAdder requestWireBytes;
+	private LongAdder responseBytes;
+	private LongAdder responseWireBytes;
+	private CallOptions callOptions;
+	private IMetricsRegistry metricsRegistry;
+	private List<IRequestInterceptor> interceptors;
 
 	//region BUILDER
 
@@ -32,6 +123,56 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 		private boolean isKeyRequired;
 		private String apiKey;
 		private Map<String, String> httpMethodMapping;
+		private CodecRegistry codecRegistry;
+		private ExecutorService executorService;
+		private int streamBufferSize = DEFAULT_STREAM_BUFFER_SIZE;
+		private String skipParameter = DEFAULT_SKIP_PARAMETER;
+		private String pageSizeParameter = DEFAULT_PAGE_SIZE_PARAMETER;
+		private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+		private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+		private long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+		private long idleEvictionMillis = DEFAULT_IDLE_EVICTION_MILLIS;
+		private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+		private int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+		private boolean verifySsl = true;
+		private Set<String> coalescedEids = new HashSet<>();
+		private Map<String, Long> cacheTtlMillis = new HashMap<>();
+		private long cacheMaximumWeight = DEFAULT_CACHE_MAXIMUM_WEIGHT;
+		private Set<String> conditionalEids = new HashSet<>();
+		private Map<String, Integer> insertBatchSizes = new HashMap<>();
+		private Map<String, Long> insertLingerMillis = new HashMap<>();
+		private int compressionThreshold = -1;
+		private boolean acceptCompressedResponses = true;
+		private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+		private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+		private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+		private boolean retryWrites;
+		private double retryBudgetRatio = DEFAULT_RETRY_BUDGET_RATIO;
+		private int retryBudgetTokens = DEFAULT_RETRY_BUDGET_TOKENS;
+		private boolean circuitBreaker;
+		private float failureRateThreshold;
+		private float slowCallRateThreshold;
+		private long slowCallDurationNanos;
+		private long openDurationNanos;
+		private int circuitBreakerWindowSize = DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE;
+		private int circuitBreakerMinimumCalls = DEFAULT_CIRCUIT_BREAKER_MINIMUM_CALLS;
+		private int circuitBreakerProbes = DEFAULT_CIRCUIT_BREAKER_PROBES;
+		private List<Consumer<CircuitBreakerEvent>> circuitBreakerListeners = new ArrayList<>();
+		private Set<String> hedgedEids = new HashSet<>();
+		private double hedgePercentile;
+		private double maxHedgeRatio;
+		private boolean limitConcurrency;
+		private int initialConcurrencyLimit;
+		private int minConcurrencyLimit;
+		private int maxConcurrencyLimit;
+		private int concurrencyQueueSize = DEFAULT_CONCURRENCY_QUEUE_SIZE;
+		private long concurrencyQueueWaitMillis = DEFAULT_CONCURRENCY_QUEUE_WAIT_MILLIS;
+		private List<String> baseURLs = new ArrayList<>();
+		private int ejectAfter = DEFAULT_EJECT_AFTER;
+		private String healthCheckPath = DEFAULT_HEALTH_CHECK_PATH;
+		private long healthCheckIntervalMillis = DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS;
+		private IMetricsRegistry metricsRegistry;
+		private List<IRequestInterceptor> interceptors = new ArrayList<>();
 
 		public Config objectMapper(ObjectMapper objectMapper)
 		{
@@ -42,6 +183,47 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 		public Config baseUrl(String baseUrl)
 		{
 			this.baseURL = baseUrl;
+			this.baseURLs.clear();
+			return this;
+		}
+
+		/**
+		 * Spread the requests over several DbFlare replicas. Every request goes to the healthy replica with the fewest
+		 * requests in flight, or with the lowest recent latency when they have as many. getBaseURL returns the first
+		 * replica
+		 * @param baseUrls
+		 * @return
+		 */
+		public Config baseUrls(String... baseUrls)
+		{
+			this.baseURL = baseUrls[0];
+			this.baseURLs = new ArrayList<>(Arrays.asList(baseUrls));
+			return this;
+		}
+
+		/**
+		 * Stop sending requests to a replica after consecutiveFailures requests in a row failed with an I/O error or
+		 * a 5xx status
+		 * @param consecutiveFailures
+		 * @return
+		 */
+		public Config ejectAfter(int consecutiveFailures)
+		{
+			this.ejectAfter = consecutiveFailures;
+			return this;
+		}
+
+		/**
+		 * Probe ejected replicas with a GET of path, a replica is re-admitted once it answers with a status below 500
+		 * @param path appended to the base url of the replica
+		 * @param interval
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config healthCheck(String path, long interval, TimeUnit timeUnit)
+		{
+			this.healthCheckPath = path;
+			this.healthCheckIntervalMillis = timeUnit.toMillis(interval);
 			return this;
 		}
 
@@ -57,16 +239,368 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 			return this;
 		}
 
+		/**
+		 * Codecs used to decode every response of the client. Defaults to {@link CodecRegistry#getDefault()}
+		 * @param codecRegistry
+		 * @return
+		 */
+		public Config codecRegistry(CodecRegistry codecRegistry)
+		{
+			this.codecRegistry = codecRegistry;
+			return this;
+		}
+
+		/**
+		 * Executor used for background work such as reading streamed responses. Defaults to a shared pool of daemon threads
+		 * @param executorService
+		 * @return
+		 */
+		public Config executorService(ExecutorService executorService)
+		{
+			this.executorService = executorService;
+			return this;
+		}
+
+		/**
+		 * Maximum number of decoded rows a zgetStream reads ahead of the caller
+		 * @param streamBufferSize
+		 * @return
+		 */
+		public Config streamBufferSize(int streamBufferSize)
+		{
+			this.streamBufferSize = streamBufferSize;
+			return this;
+		}
+
+		/**
+		 * Names of the query parameters used by cursors to request a page
+		 * @param skipParameter number of records to skip
+		 * @param pageSizeParameter number of records to return
+		 * @return
+		 */
+		public Config pageParameters(String skipParameter, String pageSizeParameter)
+		{
+			this.skipParameter = skipParameter;
+			this.pageSizeParameter = pageSizeParameter;
+			return this;
+		}
+
+		/**
+		 * Size of the connection pool of the client. A client talks to a single server, so by default a route may use
+		 * the whole pool
+		 * @param maxConnections maximum number of open connections
+		 * @param maxConnectionsPerRoute maximum number of open connections to the same host
+		 * @return
+		 */
+		public Config maxConnections(int maxConnections, int maxConnectionsPerRoute)
+		{
+			this.maxConnections = maxConnections;
+			this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+			return this;
+		}
+
+		/**
+		 * How long an idle connection is kept for reuse when the server does not send a shorter Keep-Alive timeout
+		 * @param keepAlive
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config keepAlive(long keepAlive, TimeUnit timeUnit)
+		{
+			this.keepAliveMillis = timeUnit.toMillis(keepAlive);
+			return this;
+		}
+
+		/**
+		 * Close connections that stayed idle in the pool for longer than the given time
+		 * @param idleEviction
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config idleEviction(long idleEviction, TimeUnit timeUnit)
+		{
+			this.idleEvictionMillis = timeUnit.toMillis(idleEviction);
+			return this;
+		}
+
+		/**
+		 * @param connectTimeout milliseconds to wait for a connection to be established
+		 * @return
+		 */
+		public Config connectTimeout(int connectTimeout)
+		{
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		/**
+		 * @param socketTimeout milliseconds to wait for data, also the maximum wait for a free pooled connection
+		 * @return
+		 */
+		public Config socketTimeout(int socketTimeout)
+		{
+			this.socketTimeout = socketTimeout;
+			return this;
+		}
+
+		public Config verifySsl(boolean verifySsl)
+		{
+			this.verifySsl = verifySsl;
+			return this;
+		}
+
+		/**
+		 * Send a single request for identical concurrent zget calls of the given eids and share its response with
+		 * every caller. Calls are identical when they have the same eid, queryParams and queryParamsCollection.
+		 * Only the response body is shared: each of N coalesced callers still decodes it on its own, so the request
+		 * is saved but the decoding runs N times. Callers therefore never share the decoded objects, which they may
+		 * modify
+		 * @param eids
+		 * @return
+		 */
+		public Config coalesceReads(String... eids)
+		{
+			this.coalescedEids.addAll(Arrays.asList(eids));
+			return this;
+		}
+
+		/**
+		 * Cache the zget results of an eid. Cached results of an eid are dropped when it is written through this client
+		 * @param eid
+		 * @param ttl how long a result is served from the cache
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config cacheReads(String eid, long ttl, TimeUnit timeUnit)
+		{
+			this.cacheTtlMillis.put(eid, timeUnit.toMillis(ttl));
+			return this;
+		}
+
+		/**
+		 * Keep the last zget response of the given eids with its ETag/Last-Modified and revalidate it with a conditional
+		 * request instead of transferring the body again when it did not change
+		 * @param eids
+		 * @return
+		 */
+		public Config conditionalReads(String... eids)
+		{
+			this.conditionalEids.addAll(Arrays.asList(eids));
+			return this;
+		}
+
+		/**
+		 * Maximum number of response bytes kept by each cache, least recently used results are evicted first
+		 * @param cacheMaximumWeight
+		 * @return
+		 */
+		public Config cacheMaximumWeight(long cacheMaximumWeight)
+		{
+			this.cacheMaximumWeight = cacheMaximumWeight;
+			return this;
+		}
+
+		/**
+		 * Group concurrent single-row zinsert calls of an eid into one list insert
+		 * @param eid
+		 * @param maxBatchSize number of rows that sends a batch immediately
+		 * @param linger how long the first row of a batch waits for more rows
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config batchInserts(String eid, int maxBatchSize, long linger, TimeUnit timeUnit)
+		{
+			this.insertBatchSizes.put(eid, maxBatchSize);
+			this.insertLingerMillis.put(eid, timeUnit.toMillis(linger));
+			return this;
+		}
+
+		/**
+		 * Send POST and PUT bodies of at least thresholdBytes serialized bytes gzip compressed. DbFlare must accept
+		 * Content-Encoding: gzip request bodies
+		 * @param thresholdBytes smallest body that is compressed, smaller bodies cost more to compress than they save
+		 * @return
+		 */
+		public Config compressRequests(int thresholdBytes)
+		{
+			this.compressionThreshold = thresholdBytes;
+			return this;
+		}
+
+		/**
+		 * Ask for gzip compressed responses with Accept-Encoding: gzip, enabled by default. Compressed bodies are kept
+		 * compressed, also by the caches, and inflated while they are decoded. Streamed reads always accept gzip
+		 * @param acceptCompressedResponses
+		 * @return
+		 */
+		public Config acceptCompressedResponses(boolean acceptCompressedResponses)
+		{
+			this.acceptCompressedResponses = acceptCompressedResponses;
+			return this;
+		}
+
+		/**
+		 * Retry requests that failed with an I/O error or a 408, 429, 502, 503 or 504 status. Reads are retried by
+		 * default, writes only with retryWrites. Streamed reads are not retried
+		 * @param maxAttempts attempts including the first one, 1 disables retries
+		 * @param initialBackoff upper bound of the random delay before the first retry, doubled for every further retry
+		 * @param maxBackoff upper bound of any delay
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config retry(int maxAttempts, long initialBackoff, long maxBackoff, TimeUnit timeUnit)
+		{
+			this.maxAttempts = maxAttempts;
+			this.initialBackoffMillis = timeUnit.toMillis(initialBackoff);
+			this.maxBackoffMillis = timeUnit.toMillis(maxBackoff);
+			return this;
+		}
+
+		/**
+		 * Also retry zinsert, zupdate, zUpsert, zdelete, zBatch and the generic POST, PUT and DELETE calls. Only
+		 * enable it when DbFlare applies these writes idempotently, a write whose response was lost is sent again
+		 * @param retryWrites
+		 * @return
+		 */
+		public Config retryWrites(boolean retryWrites)
+		{
+			this.retryWrites = retryWrites;
+			return this;
+		}
+
+		/**
+		 * Limit retries to a share of the requests so retries cannot multiply the load of a failing server
+		 * @param ratio retries earned by every request
+		 * @param maxTokens retries that can be spent in a burst
+		 * @return
+		 */
+		public Config retryBudget(double ratio, int maxTokens)
+		{
+			this.retryBudgetRatio = ratio;
+			this.retryBudgetTokens = maxTokens;
+			return this;
+		}
+
+		/**
+		 * Give every endpoint, such as /zget/jobsheets or /zinsert/jobsheets, a circuit breaker that fails its calls
+		 * fast with a CircuitBreakerOpenException once too many of its recent calls failed or were slow. With several
+		 * base urls every replica has its own breakers, their fast failures count towards ejecting the replica
+		 * @param failureRateThreshold percentage of calls failed with an I/O error or a 5xx status that opens the breaker
+		 * @param slowCallRateThreshold percentage of slow calls that opens the breaker
+		 * @param slowCallDuration calls taking at least this long are slow
+		 * @param openDuration how long the breaker stays open before it lets probe calls through
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config circuitBreaker(float failureRateThreshold, float slowCallRateThreshold, long slowCallDuration, long openDuration, TimeUnit timeUnit)
+		{
+			this.circuitBreaker = true;
+			this.failureRateThreshold = failureRateThreshold;
+			this.slowCallRateThreshold = slowCallRateThreshold;
+			this.slowCallDurationNanos = timeUnit.toNanos(slowCallDuration);
+			this.openDurationNanos = timeUnit.toNanos(openDuration);
+			return this;
+		}
+
+		/**
+		 * @param windowSize number of recent calls the rates are computed on
+		 * @param minimumCalls number of calls recorded before the breaker may open
+		 * @param probes number of calls let through while half-open, the breaker closes when they all succeed
+		 * @return
+		 */
+		public Config circuitBreakerWindow(int windowSize, int minimumCalls, int probes)
+		{
+			this.circuitBreakerWindowSize = windowSize;
+			this.circuitBreakerMinimumCalls = minimumCalls;
+			this.circuitBreakerProbes = probes;
+			return this;
+		}
+
+		/**
+		 * Listen to the state changes of the circuit breakers. Listeners are called on the thread completing the call
+		 * that changed the state and must not block
+		 * @param listener
+		 * @return
+		 */
+		public Config onCircuitBreakerEvent(Consumer<CircuitBreakerEvent> listener)
+		{
+			this.circuitBreakerListeners.add(listener);
+			return this;
+		}
+
+		/**
+		 * Send a second identical zget read of the given eids when the first one has not completed after the given
+		 * percentile of the recent latencies of its eid, and use whichever response comes first
+		 * @param percentile latency percentile after which a read is hedged, e.g. 95
+		 * @param maxHedgeRatio maximum share of reads that are hedged, e.g. 0.05
+		 * @param eids
+		 * @return
+		 */
+		public Config hedgeReads(double percentile, double maxHedgeRatio, String... eids)
+		{
+			this.hedgePercentile = percentile;
+			this.maxHedgeRatio = maxHedgeRatio;
+			this.hedgedEids.addAll(Arrays.asList(eids));
+			return this;
+		}
+
+		/**
+		 * Limit the requests in flight with a limit that grows while latency stays low and shrinks when it rises or
+		 * DbFlare answers 429 or 503. Requests beyond the limit wait in a queue and fail with a
+		 * ConcurrencyLimitExceededException when it is full or no slot becomes free in time. Streamed reads are not
+		 * limited
+		 * @param initialLimit
+		 * @param minLimit
+		 * @param maxLimit
+		 * @return
+		 */
+		public Config limitConcurrency(int initialLimit, int minLimit, int maxLimit)
+		{
+			this.limitConcurrency = true;
+			this.initialConcurrencyLimit = initialLimit;
+			this.minConcurrencyLimit = minLimit;
+			this.maxConcurrencyLimit = maxLimit;
+			return this;
+		}
+
+		/**
+		 * @param maxQueued requests that may wait for a slot, further requests are rejected at once
+		 * @param maxWait how long a request waits for a slot
+		 * @param timeUnit
+		 * @return
+		 */
+		public Config concurrencyQueue(int maxQueued, long maxWait, TimeUnit timeUnit)
+		{
+			this.concurrencyQueueSize = maxQueued;
+			this.concurrencyQueueWaitMillis = timeUnit.toMillis(maxWait);
+			return this;
+		}
+
+		/**
+		 * Registry receiving the latency, bytes and errors of every call, a MetricsRegistry of the client by default
+		 * @param metricsRegistry
+		 * @return
+		 */
+		public Config metricsRegistry(IMetricsRegistry metricsRegistry)
+		{
+			this.metricsRegistry = metricsRegistry;
+			return this;
+		}
+
+		/**
+		 * Add an interceptor of every call, interceptors run in the order they are added
+		 * @param interceptor
+		 * @return
+		 */
+		public Config interceptor(IRequestInterceptor interceptor)
+		{
+			this.interceptors.add(interceptor);
+			return this;
+		}
+
 		public DbFlareClient build()
 		{
-			if (this.httpMethodMapping == null)
-			{
-				return new DbFlareClient(this.objectMapper, this.baseURL, this.isKeyRequired, this.apiKey);
-			}
-			else
-			{
-				return new DbFlareClient(this.objectMapper, this.baseURL, this.isKeyRequired, this.apiKey, this.httpMethodMapping);
-			}
+			return new DbFlareClient(this);
 		}
 	}
 
@@ -113,17 +647,127 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 
 	//region CONSTRUCTOR
 
-	private DbFlareClient(ObjectMapper objectMapper, String baseURL, boolean isKeyRequired, String apiKey)
+	private DbFlareClient(Config config)
 	{
-		this.objectMapper = objectMapper;
-		this.baseURL = baseURL;
-		this.isKeyRequired = isKeyRequired;
-		this.apiKey = apiKey;
+		this.objectMapper = config.objectMapper;
+		this.baseURL = config.baseURL;
+		this.isKeyRequired = config.isKeyRequired;
+		this.apiKey = config.apiKey;
+		this.codecRegistry = config.codecRegistry != null ? config.codecRegistry : CodecRegistry.getDefault();
+		this.executorService = config.executorService != null ? config.executorService : DefaultExecutorHolder.EXECUTOR_SERVICE;
+		this.streamBufferSize = config.streamBufferSize;
+		this.skipParameter = config.skipParameter;
+		this.pageSizeParameter = config.pageSizeParameter;
+		this.coalescedEids = new HashSet<>(config.coalescedEids);
+		this.singleFlight = new SingleFlight<>();
+		this.resultCache = !config.cacheTtlMillis.isEmpty() ? new ResultCache(config.cacheTtlMillis, config.cacheMaximumWeight) : null;
+		this.retryPolicy = new RetryPolicy(config.maxAttempts, config.initialBackoffMillis, config.maxBackoffMillis, config.retryWrites,
+				config.retryBudgetRatio, config.retryBudgetTokens);
+		this.circuitBreaker = config.circuitBreaker ? new CircuitBreaker(config.failureRateThreshold, config.slowCallRateThreshold, config.slowCallDurationNanos,
+				config.openDurationNanos, config.circuitBreakerWindowSize, config.circuitBreakerMinimumCalls, config.circuitBreakerProbes, config.circuitBreakerListeners) : null;
+		this.requestHedger = !config.hedgedEids.isEmpty() ? new RequestHedger(config.hedgedEids, config.hedgePercentile, config.maxHedgeRatio) : null;
+		this.concurrencyLimiter = config.limitConcurrency ? new ConcurrencyLimiter(config.initialConcurrencyLimit, config.minConcurrencyLimit,
+				config.maxConcurrencyLimit, config.concurrencyQueueSize, config.concurrencyQueueWaitMillis) : null;
+		this.compressionThreshold = config.compressionThreshold;
+		this.acceptCompressedResponses = config.acceptCompressedResponses;
+		this.requestBytes = new LongAdder();
+		this.requestWireBytes = new LongAdder();
+		this.responseBytes = new LongAdder();
+		this.responseWireBytes = new LongAdder();
+		this.metricsRegistry = config.metricsRegistry != null ? config.metricsRegistry : new MetricsRegistry();
+		this.interceptors = new ArrayList<>(config.interceptors);
+		this.insertBatchers = new HashMap<>();
+		this.batchWriters = ConcurrentHashMap.newKeySet();
+		for (Map.Entry<String, Integer> item : config.insertBatchSizes.entrySet())
+		{
+			Map<String, String> routeParams = new HashMap<>();
+			routeParams.put("eid", item.getKey());
+			this.insertBatchers.put(item.getKey(), new InsertBatcher(items -> send(POST, "/zinsert/{eid}", routeParams, null, null, items),
+					this.codecRegistry, this.executorService, item.getValue(), config.insertLingerMillis.get(item.getKey())));
+		}
+		this.asyncDbFlareClient = new AsyncDbFlareClient(this);
+		try
+		{
+			this.connectionPool = new ConnectionPool(config.maxConnections, config.maxConnectionsPerRoute, config.keepAliveMillis,
+					config.idleEvictionMillis, config.connectTimeout, config.socketTimeout, config.verifySsl);
+		}
+		catch (Exception exception)
+		{
+			throw new IllegalStateException("Unable to create the connection pool", exception);
+		}
+		this.loadBalancer = config.baseURLs.size() > 1 ? new LoadBalancer(config.baseURLs, config.ejectAfter, config.healthCheckPath,
+				config.healthCheckIntervalMillis, this.connectionPool.getUnirestInstance()) : null;
+		this.validatorCache = !config.conditionalEids.isEmpty() ? new ValidatorCache(config.conditionalEids, config.cacheMaximumWeight,
+				this.connectionPool.getUnirestInstance()) : null;
+	}
+
+	/**
+	 * View of a client with the given call options, sharing its connection pool, caches and every other component
+	 */
+	private DbFlareClient(DbFlareClient client, CallOptions callOptions)
+	{
+		this.objectMapper = client.objectMapper;
+		this.baseURL = client.baseURL;
+		this.isKeyRequired = client.isKeyRequired;
+		this.apiKey = client.apiKey;
+		this.codecRegistry = client.codecRegistry;
+		this.executorService = client.executorService;
+		this.streamBufferSize = client.streamBufferSize;
+		this.skipParameter = client.skipParameter;
+		this.pageSizeParameter = client.pageSizeParameter;
+		this.connectionPool = client.connectionPool;
+		this.coalescedEids = client.coalescedEids;
+		this.singleFlight = client.singleFlight;
+		this.resultCache = client.resultCache;
+		this.validatorCache = client.validatorCache;
+		this.insertBatchers = client.insertBatchers;
+		this.batchWriters = client.batchWriters;
+		this.retryPolicy = client.retryPolicy;
+		this.circuitBreaker = client.circuitBreaker;
+		this.requestHedger = client.requestHedger;
+		this.concurrencyLimiter = client.concurrencyLimiter;
+		this.loadBalancer = client.loadBalancer;
+		this.compressionThreshold = client.compressionThreshold;
+		this.acceptCompressedResponses = client.acceptCompressedResponses;
+		this.requestBytes = client.requestBytes;
+		this.requestWireBytes = client.requestWireBytes;
+		this.responseBytes = client.responseBytes;
+		this.responseWireBytes = client.responseWireBytes;
+		this.metricsRegistry = client.metricsRegistry;
+		this.interceptors = client.interceptors;
+		this.callOptions = callOptions;
+		this.asyncDbFlareClient = new AsyncDbFlareClient(this);
 	}
 
-	private DbFlareClient(ObjectMapper objectMapper, String baseURL, boolean isKeyRequired, String apiKey, Map<String, String> httpMethodMapping)
+	/**
+	 * Lazily created pool shared by every client that is not given its own executor
+	 */
+	private static class DefaultExecutorHolder
 	{
-		this(objectMapper, baseURL, isKeyRequired, apiKey);
+		private static final AtomicInteger threadCount = new AtomicInteger();
+		private static final ExecutorService EXECUTOR_SERVICE = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "dbflare-client-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Lazily created timer shared by every client for delayed and periodic work such as flushing batches. Tasks must
+	 * be short, anything blocking is handed to an executor
+	 */
+	private static class SchedulerHolder
+	{
+		private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "dbflare-scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	static ScheduledExecutorService getScheduler()
+	{
+		return SchedulerHolder.SCHEDULER;
 	}
 
 	//endregion
@@ -131,10 +775,14 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 	private HttpRequest prepareHttpRequest(HttpMethod httpMethod, String url, Map<String, String> routeParams, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection) throws Exception {
 		Map<String, String> headers = this.apiKeyCheckpoint();
 		headers.put("accept", "application/json;charset=UTF-8");
+		if (this.acceptCompressedResponses)
+		{
+			headers.put("Accept-Encoding", "gzip");
+		}
 
 		switch(httpMethod.name()) {
 			case "GET": {
-				HttpRequest httpRequest = Unirest.get(this.getBaseURL() + url)
+				HttpRequest httpRequest = this.connectionPool.getUnirestInstance().get(this.getBaseURL() + url)
 						.headers(headers)
 						.queryString(queryParams);
 				if(routeParams != null && !routeParams.isEmpty()) {
@@ -161,10 +809,14 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 	private HttpRequestWithBody prepareHttpRequestWithBody(HttpMethod httpMethod, String url, Map<String, String> routeParams, Map<String, Object> queryParams) throws Exception {
 		Map<String, String> headers = this.apiKeyCheckpoint();
 		headers.put("accept", "application/json;charset=UTF-8");
+		if (this.acceptCompressedResponses)
+		{
+			headers.put("Accept-Encoding", "gzip");
+		}
 
 		switch(httpMethod.name()) {
 			case "POST": {
-				HttpRequestWithBody httpRequestWithBody = Unirest.post(this.getBaseURL() + url)
+				HttpRequestWithBody httpRequestWithBody = this.connectionPool.getUnirestInstance().post(this.getBaseURL() + url)
 						.headers(headers)
 						.queryString(queryParams);
 				if(routeParams != null && !routeParams.isEmpty()) {
@@ -175,7 +827,7 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 				return httpRequestWithBody;
 			}
 			case "PUT": {
-				HttpRequestWithBody httpRequestWithBody = Unirest.put(this.getBaseURL() + url)
+				HttpRequestWithBody httpRequestWithBody = this.connectionPool.getUnirestInstance().put(this.getBaseURL() + url)
 						.headers(headers)
 						.queryString(queryParams);
 				if(routeParams != null && !routeParams.isEmpty()) {
@@ -186,7 +838,7 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 				return httpRequestWithBody;
 			}
 			case "DELETE": {
-				HttpRequestWithBody httpRequestWithBody = Unirest.delete(this.getBaseURL() + url)
+				HttpRequestWithBody httpRequestWithBody = this.connectionPool.getUnirestInstance().delete(this.getBaseURL() + url)
 						.headers(headers)
 						.queryString(queryParams);
 				if(routeParams != null && !routeParams.isEmpty()) {
@@ -196,11 +848,412 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 				}
 				return httpRequestWithBody;
 			}
-			default: {
-				break;
+			default: {
+				break;
+			}
+		}
+		throw new Exception("Unmapped HTTP Method for prepareHttpRequestWithBody");
+	}
+
+	/**
+	 * Send a request and return the in-flight response. GET requests carry queryParamsCollection, POST and PUT
+	 * requests carry the payload serialized as JSON, DELETE requests carry neither. The prepared request goes through
+	 * the interceptors before it is sent.
+	 */
+	CompletableFuture<HttpResponse<byte[]>> send(HttpMethod httpMethod, String url, Map<String, String> routeParams, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Object payload) throws Exception
+	{
+		long deadline = getDeadline();
+		String operation = getOperation(url);
+		String eid = routeParams != null ? routeParams.get("eid") : null;
+		Object event = FlightRecorderEvents.beginRequest();
+		long start = System.nanoTime();
+		long requestBytes = 0;
+		HttpRequest<?> httpRequest;
+		Supplier<CompletableFuture<HttpResponse<byte[]>>> sender;
+		switch (httpMethod.name())
+		{
+			case "GET":
+			{
+				HttpRequest<?> getRequest = prepareHttpRequest(httpMethod, url, routeParams, queryParams, queryParamsCollection);
+				httpRequest = getRequest;
+				if (this.resultCache != null && this.resultCache.isCached(eid))
+				{
+					sender = () -> this.resultCache.get(eid, getRequest.getUrl(), () -> read(eid, getRequest, deadline));
+				}
+				else
+				{
+					sender = () -> read(eid, getRequest, deadline);
+				}
+				break;
+			}
+			case "DELETE":
+			{
+				HttpRequest<?> deleteRequest = prepareHttpRequestWithBody(httpMethod, url, routeParams, queryParams);
+				httpRequest = deleteRequest;
+				sender = () -> write(routeParams, payload, deleteRequest, deadline);
+				break;
+			}
+			default:
+			{
+				HttpRequestWithBody requestWithBody = prepareHttpRequestWithBody(httpMethod, url, routeParams, queryParams)
+						.header("Content-Type", "application/json;charset=UTF-8");
+				byte[] body = serialize(payload);
+				this.requestBytes.add(body.length);
+				if (this.compressionThreshold >= 0 && body.length >= this.compressionThreshold)
+				{
+					body = gzip(body);
+					requestWithBody.header("Content-Encoding", "gzip");
+				}
+				this.requestWireBytes.add(body.length);
+				this.metricsRegistry.recordRequestBytes(operation, eid, body.length);
+				requestBytes = body.length;
+				HttpRequest<?> postRequest = requestWithBody.body(body);
+				httpRequest = postRequest;
+				sender = () -> write(routeParams, payload, postRequest, deadline);
+				break;
+			}
+		}
+
+		CompletableFuture<HttpResponse<byte[]>> future = this.interceptors.isEmpty() ? sender.get()
+				: new InterceptedCall(this.interceptors, httpMethod.name(), url, eid, httpRequest, start, sender).proceed();
+		long sentBytes = requestBytes;
+		future = withDeadline(future, deadline, getEndpoint(url, routeParams));
+		future.whenComplete((response, throwable) -> {
+			long responseBytes = response != null && response.getBody() != null ? response.getBody().length : 0;
+			FlightRecorderEvents.commitRequest(event, httpMethod.name(), url, eid, response != null ? response.getStatus() : -1, sentBytes, responseBytes);
+			if (throwable != null)
+			{
+				Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+				this.metricsRegistry.recordError(operation, eid, cause.getClass().getSimpleName());
+				return;
+			}
+			this.metricsRegistry.recordResponse(operation, eid, System.nanoTime() - start, responseBytes);
+			if (response.getStatus() < 200 || response.getStatus() > 299)
+			{
+				this.metricsRegistry.recordError(operation, eid, "HTTP " + response.getStatus());
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Serialize a payload straight to UTF-8 bytes. Jackson fills recycled buffers and the bytes are sent as they are,
+	 * so the body is never held as a String. The writer has no root type, polymorphic and generic payloads are
+	 * written as the object mapper would write them
+	 */
+	private byte[] serialize(Object payload) throws Exception
+	{
+		return this.objectMapper.writer().writeValueAsBytes(payload);
+	}
+
+	private static byte[] gzip(byte[] body) throws Exception
+	{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4 + 64);
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 8192))
+		{
+			gzipOutputStream.write(body);
+		}
+		return outputStream.toByteArray();
+	}
+
+	private CompletableFuture<HttpResponse<byte[]>> read(String eid, HttpRequest<?> httpRequest, long deadline)
+	{
+		if (this.validatorCache != null && this.validatorCache.isConditional(eid))
+		{
+			return this.validatorCache.get(eid, httpRequest, request -> coalesce(eid, request, deadline));
+		}
+		return coalesce(eid, httpRequest, deadline);
+	}
+
+	private CompletableFuture<HttpResponse<byte[]>> coalesce(String eid, HttpRequest<?> httpRequest, long deadline)
+	{
+		// A read with a deadline is not shared, the deadline of one caller would abort the read of every other
+		if (this.coalescedEids.contains(eid) && deadline == CallOptions.NO_DEADLINE)
+		{
+			// The url carries the eid and every query parameter
+			return this.singleFlight.execute(httpRequest.getUrl(), () -> execute(httpRequest, eid, false, deadline));
+		}
+		return execute(httpRequest, eid, false, deadline);
+	}
+
+	/**
+	 * Send a request with the retry policy. Every try of a hedged read may be hedged, every request sent goes to the
+	 * replica chosen by the load balancer, through the circuit breaker of its endpoint on that replica, and waits for a
+	 * slot of the concurrency limit, so a retry or a hedge may go to another replica. The response body is kept as
+	 * received: Unirest would inflate a gzip body as soon as it arrives, it is rather inflated by ResultProcessor while
+	 * it is decoded
+	 * @param eid eid of a read, null for writes
+	 * @param deadline System.nanoTime() by which the request must complete, every attempt still in flight is aborted then
+	 */
+	private CompletableFuture<HttpResponse<byte[]>> execute(HttpRequest<?> httpRequest, String eid, boolean write, long deadline)
+	{
+		Function<HttpRequest<?>, CompletableFuture<HttpResponse<byte[]>>> sender = request -> exchange(request, deadline);
+		if (this.concurrencyLimiter != null)
+		{
+			Function<HttpRequest<?>, CompletableFuture<HttpResponse<byte[]>>> unlimited = sender;
+			sender = request -> this.concurrencyLimiter.execute(() -> unlimited.apply(request));
+		}
+		if (this.circuitBreaker != null)
+		{
+			Function<HttpRequest<?>, CompletableFuture<HttpResponse<byte[]>>> unguarded = sender;
+			sender = request -> this.circuitBreaker.execute(getCircuitBreakerEndpoint(request.getUrl()), () -> unguarded.apply(request));
+		}
+		Function<HttpRequest<?>, CompletableFuture<HttpResponse<byte[]>>> balanced = sender;
+		Supplier<CompletableFuture<HttpResponse<byte[]>>> attempt = this.loadBalancer != null
+				? () -> this.loadBalancer.execute(httpRequest, balanced)
+				: () -> balanced.apply(httpRequest);
+		if (!write && this.requestHedger != null && this.requestHedger.isHedged(eid))
+		{
+			Supplier<CompletableFuture<HttpResponse<byte[]>>> unhedged = attempt;
+			// A read that lost is cancelled, which aborts its exchange
+			attempt = () -> this.requestHedger.execute(eid, () -> this.connectionPool.cancellable(unhedged));
+		}
+		return this.retryPolicy.execute(attempt, write);
+	}
+
+	/**
+	 * Send a single attempt of a request. An attempt with a deadline fails right away once the deadline passed, and
+	 * is aborted at the deadline while in flight so its connection goes back to the pool. Every attempt can also be
+	 * aborted by giving up the cancellable request it was sent for
+	 */
+	private CompletableFuture<HttpResponse<byte[]>> exchange(HttpRequest<?> httpRequest, long deadline)
+	{
+		if (deadline == CallOptions.NO_DEADLINE)
+		{
+			return this.connectionPool.abortable(() -> httpRequest.asObjectAsync(this::readBody));
+		}
+
+		long remainingNanos = deadline - System.nanoTime();
+		if (remainingNanos <= 0)
+		{
+			CompletableFuture<HttpResponse<byte[]>> expired = new CompletableFuture<>();
+			expired.completeExceptionally(new DeadlineExceededException(getEndpoint(httpRequest.getUrl())));
+			return expired;
+		}
+
+		CompletableFuture<HttpResponse<byte[]>> future = this.connectionPool.abortable(() -> httpRequest.asObjectAsync(this::readBody));
+		ScheduledFuture<?> timer = getScheduler().schedule(() -> future.completeExceptionally(new DeadlineExceededException(getEndpoint(httpRequest.getUrl()))),
+				remainingNanos, TimeUnit.NANOSECONDS);
+		future.whenComplete((response, throwable) -> timer.cancel(false));
+		return future;
+	}
+
+	/**
+	 * Operation of a request url relative to the base url, its first path segment such as zget
+	 */
+	static String getOperation(String url)
+	{
+		int start = url.startsWith("/") ? 1 : 0;
+		int end = start;
+		while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?')
+		{
+			end++;
+		}
+		return url.substring(start, end);
+	}
+
+	/**
+	 * Request url with its {eid} route parameter substituted, such as /zget/jobsheets
+	 */
+	private static String getEndpoint(String url, Map<String, String> routeParams)
+	{
+		return routeParams != null && routeParams.get("eid") != null ? url.replace("{eid}", routeParams.get("eid")) : url;
+	}
+
+	/**
+	 * Path of a request url without the base url and the query string, such as /zget/jobsheets
+	 */
+	private String getEndpoint(String url)
+	{
+		String baseURL = this.getBaseURL();
+		String endpoint = baseURL != null && url.startsWith(baseURL) ? url.substring(baseURL.length()) : url;
+		int query = endpoint.indexOf('?');
+		return query >= 0 ? endpoint.substring(0, query) : endpoint;
+	}
+
+	/**
+	 * Endpoint a circuit breaker is kept for. Load balanced requests keep one per replica and endpoint, such as
+	 * http://replica-2/zget/jobsheets, so a failing replica does not open the breaker of the healthy ones
+	 */
+	private String getCircuitBreakerEndpoint(String url)
+	{
+		if (this.loadBalancer == null)
+		{
+			return getEndpoint(url);
+		}
+		int query = url.indexOf('?');
+		return query >= 0 ? url.substring(0, query) : url;
+	}
+
+	/**
+	 * Read a whole response body as received. The body is held once as bytes because it is shared by the caches,
+	 * coalesced and hedged reads and decoded later by ResultProcessor, only zgetStream and zgetPublisher decode rows
+	 * while the body is read. A body with a Content-Length is read straight into an array of that size
+	 */
+	private byte[] readBody(RawResponse rawResponse)
+	{
+		if (!rawResponse.hasContent())
+		{
+			return new byte[0];
+		}
+
+		byte[] body;
+		long contentLength = getContentLength(rawResponse);
+		try (InputStream inputStream = rawResponse.getContent())
+		{
+			if (contentLength >= 0 && contentLength < Integer.MAX_VALUE)
+			{
+				body = new byte[(int) contentLength];
+				ByteStreams.readFully(inputStream, body);
+			}
+			else
+			{
+				body = ByteStreams.toByteArray(inputStream);
+			}
+		}
+		catch (IOException ioException)
+		{
+			throw new UncheckedIOException(ioException);
+		}
+		this.responseWireBytes.add(body.length);
+		this.responseBytes.add(ResultProcessor.isGzip(body) ? getInflatedSize(body) : body.length);
+		return body;
+	}
+
+	/**
+	 * @return the Content-Length of a response, -1 when it has none
+	 */
+	private static long getContentLength(RawResponse rawResponse)
+	{
+		String contentLength = rawResponse.getHeaders().getFirst("Content-Length");
+		if (contentLength == null || contentLength.isEmpty())
+		{
+			return -1;
+		}
+
+		try
+		{
+			return Long.parseLong(contentLength.trim());
+		}
+		catch (NumberFormatException exception)
+		{
+			return -1;
+		}
+	}
+
+	/**
+	 * Size of a gzip body once inflated as recorded by its trailer, without inflating it
+	 */
+	private static long getInflatedSize(byte[] body)
+	{
+		if (body.length < 18)
+		{
+			return body.length;
+		}
+		int offset = body.length - 4;
+		return (body[offset] & 0xffL) | (body[offset + 1] & 0xffL) << 8 | (body[offset + 2] & 0xffL) << 16 | (body[offset + 3] & 0xffL) << 24;
+	}
+
+	private ResultProcessor newResultProcessor(CompletableFuture<HttpResponse<byte[]>> response, String url, Map<String, String> routeParams)
+	{
+		return new ResultProcessor(response, this.codecRegistry, this.metricsRegistry, url, routeParams != null ? routeParams.get("eid") : null);
+	}
+
+	/**
+	 * @return the batcher of the single-row inserts of the eid, null when they are not batched
+	 */
+	InsertBatcher getInsertBatcher(String eid)
+	{
+		return this.insertBatchers.get(eid);
+	}
+
+	/**
+	 * @return System.nanoTime() by which a call made now must complete, CallOptions.NO_DEADLINE without call options
+	 */
+	private long getDeadline()
+	{
+		return this.callOptions != null ? this.callOptions.getDeadlineNanos() : CallOptions.NO_DEADLINE;
+	}
+
+	/**
+	 * Fail the result of a call made with call options once its deadline passed. The given future is left alone, it
+	 * may be shared with other callers such as a batch of inserts
+	 * @param future
+	 * @param endpoint path of the call, such as /zinsert/jobsheets
+	 */
+	<T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, String endpoint)
+	{
+		return withDeadline(future, getDeadline(), endpoint);
+	}
+
+	private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, long deadline, String endpoint)
+	{
+		if (deadline == CallOptions.NO_DEADLINE)
+		{
+			return future;
+		}
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		ScheduledFuture<?> timer = getScheduler().schedule(() -> result.completeExceptionally(new DeadlineExceededException(endpoint)),
+				deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		future.whenComplete((value, throwable) -> {
+			timer.cancel(false);
+			if (throwable != null)
+			{
+				result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+			}
+			else
+			{
+				result.complete(value);
+			}
+		});
+		return result;
+	}
+
+	private static <T> T await(CompletableFuture<T> future) throws Exception
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (ExecutionException executionException)
+		{
+			Throwable cause = executionException.getCause();
+			if (cause instanceof Exception)
+			{
+				throw (Exception) cause;
 			}
+			throw executionException;
 		}
-		throw new Exception("Unmapped HTTP Method for prepareHttpRequestWithBody");
+	}
+
+	/**
+	 * Send a write and drop the cached results of the eids it touches, both before and after the write so a read
+	 * racing with it is not cached
+	 */
+	private CompletableFuture<HttpResponse<byte[]>> write(Map<String, String> routeParams, Object payload, HttpRequest<?> httpRequest, long deadline)
+	{
+		if (this.resultCache == null && this.validatorCache == null)
+		{
+			return execute(httpRequest, null, true, deadline);
+		}
+
+		Set<String> eids = new HashSet<>();
+		if (routeParams != null && routeParams.get("eid") != null)
+		{
+			eids.add(routeParams.get("eid"));
+		}
+		else if (payload instanceof Map)
+		{
+			// zbatch payloads are keyed by eid
+			for (Object key : ((Map<?, ?>) payload).keySet())
+			{
+				eids.add(String.valueOf(key));
+			}
+		}
+
+		eids.forEach(this::invalidateCache);
+		return execute(httpRequest, null, true, deadline).whenComplete((response, throwable) -> eids.forEach(this::invalidateCache));
 	}
 
 	@Override
@@ -215,10 +1268,7 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 
 	@Override
 	public <T> IResultProcessor zPost(String url, Map<String, String> routeParams, Map<String, Object> queryParams, T payload) throws Exception {
-		return new ResultProcessor(prepareHttpRequestWithBody(POST,
-				url,
-				routeParams,
-				queryParams).body(this.objectMapper.writeValueAsString(payload)).asStringAsync());
+		return newResultProcessor(send(POST, url, routeParams, queryParams, null, payload), url, routeParams);
 	}
 
 	@Override
@@ -233,26 +1283,17 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 
 	@Override
 	public <T> IResultProcessor zPost(String url, Map<String, String> routeParams, Map<String, Object> queryParams, List<T> payloads) throws Exception {
-		return new ResultProcessor(prepareHttpRequestWithBody(POST,
-				url,
-				routeParams,
-				queryParams).body(this.objectMapper.writeValueAsString(payloads)).asStringAsync());
+		return newResultProcessor(send(POST, url, routeParams, queryParams, null, payloads), url, routeParams);
 	}
 
 	@Override
 	public <T> IResultProcessor zPut(String url, Map<String, String> routeParams, Map<String, Object> queryParams, T payload) throws Exception {
-		return new ResultProcessor(prepareHttpRequestWithBody(PUT,
-				url,
-				routeParams,
-				queryParams).body(this.objectMapper.writeValueAsString(payload)).asStringAsync());
+		return newResultProcessor(send(PUT, url, routeParams, queryParams, null, payload), url, routeParams);
 	}
 
 	@Override
 	public <T> IResultProcessor zPut(String url, Map<String, String> routeParams, Map<String, Object> queryParams, List<T> payloads) throws Exception {
-		return new ResultProcessor(prepareHttpRequestWithBody(PUT,
-				url,
-				routeParams,
-				queryParams).body(this.objectMapper.writeValueAsString(payloads)).asStringAsync());
+		return newResultProcessor(send(PUT, url, routeParams, queryParams, null, payloads), url, routeParams);
 	}
 
 	@Override
@@ -278,39 +1319,42 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 		return zPost("/zbatch", null, null, payload).parseToLinkedHashMap();
 	}
 
+	/**
+	 * Create a thread-safe writer that sends the writes submitted by any thread together through /zbatch. Writers
+	 * still open are closed by close()
+	 * @param maxRows number of rows that sends a batch immediately
+	 * @param maxBytes number of serialized bytes that sends a batch immediately
+	 * @param linger how long the first write of a batch waits for more writes
+	 * @param timeUnit
+	 * @return
+	 */
+	public BatchWriter newBatchWriter(int maxRows, long maxBytes, long linger, TimeUnit timeUnit)
+	{
+		BatchWriter batchWriter = new BatchWriter(payload -> send(POST, "/zbatch", null, null, null, payload), this::serialize, this.codecRegistry,
+				this.executorService, maxRows, maxBytes, timeUnit.toMillis(linger));
+		this.batchWriters.removeIf(BatchWriter::isClosed);
+		this.batchWriters.add(batchWriter);
+		return batchWriter;
+	}
+
 	@Override
 	public void zDelete(String url, Map<String, String> routeParams, Map<String, Object> queryParams) throws Exception {
-		new ResultProcessor(prepareHttpRequestWithBody(DELETE,
-				url,
-				routeParams,
-				queryParams).asStringAsync()).parse();
+		newResultProcessor(send(DELETE, url, routeParams, queryParams, null, null), url, routeParams).parse();
 	}
 
 	@Override
 	public IResultProcessor zGet(String url) throws Exception {
-		return new ResultProcessor(prepareHttpRequest(GET,
-				url,
-				null,
-				null,
-				null).asStringAsync());
+		return newResultProcessor(send(GET, url, null, null, null, null), url, null);
 	}
 
 	@Override
 	public IResultProcessor zGet(String url, Map<String, String> routeParams, Map<String, Object> queryParams) throws Exception {
-		return new ResultProcessor(prepareHttpRequest(GET,
-				url,
-				routeParams,
-				queryParams,
-				null).asStringAsync());
+		return newResultProcessor(send(GET, url, routeParams, queryParams, null, null), url, routeParams);
 	}
 
 	@Override
 	public IResultProcessor zGet(String url, Map<String, String> routeParams, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection) throws Exception {
-		return new ResultProcessor(prepareHttpRequest(GET,
-				url,
-				routeParams,
-				queryParams,
-				queryParamsCollection).asStringAsync());
+		return newResultProcessor(send(GET, url, routeParams, queryParams, queryParamsCollection, null), url, routeParams);
 	}
 
 	//region TRANSACTION
@@ -320,6 +1364,12 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 	@Override
 	public <T> T zinsert(String eid, T item, Type typeOfT) throws Exception
 	{
+		InsertBatcher insertBatcher = getInsertBatcher(eid);
+		if (insertBatcher != null)
+		{
+			return this.codecRegistry.<T>getAdapter(typeOfT).fromJsonTree(await(withDeadline(insertBatcher.add(item), "/zinsert/" + eid)));
+		}
+
 		List<T> payload = new ArrayList<>();
 		payload.add(item);
 
@@ -334,6 +1384,12 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 	@Override
 	public <T> Map<String, Object> zinsert(String eid, T item) throws Exception
 	{
+		InsertBatcher insertBatcher = getInsertBatcher(eid);
+		if (insertBatcher != null)
+		{
+			return this.codecRegistry.getMapAdapter().fromJsonTree(await(withDeadline(insertBatcher.add(item), "/zinsert/" + eid)));
+		}
+
 		List<T> payload = new ArrayList<>();
 		payload.add(item);
 
@@ -440,6 +1496,73 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 
 	//endregion
 
+	//region BULK
+
+	@Override
+	public <T> BulkResult<T> zinsertBulk(String eid, List<T> items, int chunkSize, int parallelism, Type typeOfT) throws Exception
+	{
+		return bulk(items, chunkSize, parallelism, chunk -> this.asyncDbFlareClient.zinsert(eid, chunk, typeOfT));
+	}
+
+	@Override
+	public <T> BulkResult<Map<String, Object>> zinsertBulk(String eid, List<T> items, int chunkSize, int parallelism) throws Exception
+	{
+		return bulk(items, chunkSize, parallelism, chunk -> this.asyncDbFlareClient.zinsert(eid, chunk));
+	}
+
+	@Override
+	public <T> BulkResult<T> zupdateBulk(String eid, Map<String, Object> queryParams, List<T> items, int chunkSize, int parallelism, Type typeOfT) throws Exception
+	{
+		return bulk(items, chunkSize, parallelism, chunk -> this.asyncDbFlareClient.zupdate(eid, queryParams, chunk, typeOfT));
+	}
+
+	@Override
+	public <T> BulkResult<Map<String, Object>> zupdateBulk(String eid, Map<String, Object> queryParams, List<T> items, int chunkSize, int parallelism) throws Exception
+	{
+		return bulk(items, chunkSize, parallelism, chunk -> this.asyncDbFlareClient.zupdate(eid, queryParams, chunk));
+	}
+
+	/**
+	 * Send the items in chunks with at most parallelism chunks in flight. The calling thread only serializes and sends,
+	 * responses are decoded on the executor. A failed chunk does not stop the others
+	 */
+	private <T, R> BulkResult<R> bulk(List<T> items, int chunkSize, int parallelism, Function<List<T>, CompletableFuture<List<R>>> chunkWriter) throws Exception
+	{
+		if (chunkSize <= 0)
+		{
+			throw new IllegalArgumentException("chunkSize must be greater than zero");
+		}
+
+		Semaphore permits = new Semaphore(Math.max(1, parallelism));
+		List<CompletableFuture<ChunkResult<R>>> chunks = new ArrayList<>();
+		for (int fromRow = 0; fromRow < items.size(); fromRow += chunkSize)
+		{
+			int index = chunks.size();
+			int from = fromRow;
+			int to = Math.min(items.size(), fromRow + chunkSize);
+			permits.acquire();
+			chunks.add(chunkWriter.apply(items.subList(from, to)).handle((result, throwable) -> {
+				permits.release();
+				if (throwable == null)
+				{
+					return new ChunkResult<>(index, from, to, result, null);
+				}
+
+				Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+				return new ChunkResult<>(index, from, to, null, cause instanceof Exception ? (Exception) cause : new Exception(cause));
+			}));
+		}
+
+		List<ChunkResult<R>> result = new ArrayList<>(chunks.size());
+		for (CompletableFuture<ChunkResult<R>> chunk : chunks)
+		{
+			result.add(chunk.get());
+		}
+		return new BulkResult<>(result);
+	}
+
+	//endregion
+
 	//endregion
 
 	//region RETRIEVAL
@@ -571,6 +1694,231 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 
 	//endregion
 
+	//region GET STREAM
+
+	@Override
+	public Stream<Map<String, Object>> zgetStream(String eid, Map<String, Object> queryParams) throws Exception
+	{
+		return zgetStream(eid, queryParams, null, this.codecRegistry.getMapAdapter());
+	}
+
+	@Override
+	public Stream<Map<String, Object>> zgetStream(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection) throws Exception
+	{
+		return zgetStream(eid, queryParams, queryParamsCollection, this.codecRegistry.getMapAdapter());
+	}
+
+	@Override
+	public <T> Stream<T> zgetStream(String eid, Map<String, Object> queryParams, Type typeOfT) throws Exception
+	{
+		return zgetStream(eid, queryParams, null, this.codecRegistry.<T>getAdapter(typeOfT));
+	}
+
+	@Override
+	public <T> Stream<T> zgetStream(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Type typeOfT) throws Exception
+	{
+		return zgetStream(eid, queryParams, queryParamsCollection, this.codecRegistry.<T>getAdapter(typeOfT));
+	}
+
+	private <T> Stream<T> zgetStream(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, TypeAdapter<T> typeAdapter) throws Exception
+	{
+		return openRows(eid, queryParams, queryParamsCollection, typeAdapter).stream();
+	}
+
+	private <T> RowIterator<T> openRows(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, TypeAdapter<T> typeAdapter) throws Exception
+	{
+		Map<String, String> routeParams = new HashMap<>();
+		routeParams.put("eid", eid);
+		HttpRequest httpRequest = prepareHttpRequest(GET, "/zget/{eid}", routeParams, queryParams, queryParamsCollection);
+		long deadline = getDeadline();
+		RowIterator<T> rowIterator;
+		if (this.interceptors.isEmpty())
+		{
+			rowIterator = startRows(httpRequest, typeAdapter);
+		}
+		else
+		{
+			// The interceptors see the status and headers of the streamed response, a response they answer with is decoded as a whole
+			AtomicReference<RowIterator<T>> streamed = new AtomicReference<>();
+			CompletableFuture<HttpResponse<byte[]>> response = new InterceptedCall(this.interceptors, GET.name(), "/zget/{eid}", eid, httpRequest, System.nanoTime(), () -> {
+				RowIterator<T> started = startRows(httpRequest, typeAdapter);
+				streamed.set(started);
+				return started.getResponse();
+			}).proceed();
+
+			rowIterator = streamed.get();
+			if (rowIterator == null)
+			{
+				rowIterator = RowIterator.decode(response, typeAdapter, this.streamBufferSize, this.executorService);
+			}
+			else
+			{
+				RowIterator<T> proceeded = rowIterator;
+				response.whenComplete((received, throwable) -> {
+					if (throwable != null)
+					{
+						Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+						proceeded.expire(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+					}
+				});
+			}
+		}
+
+		if (deadline != CallOptions.NO_DEADLINE)
+		{
+			// The whole stream must be read by the deadline
+			rowIterator.expireAt(deadline, new DeadlineExceededException("/zget/" + eid));
+		}
+		return rowIterator;
+	}
+
+	/**
+	 * Send a streamed read, to a replica chosen by the load balancer when there is one
+	 */
+	private <T> RowIterator<T> startRows(HttpRequest<?> httpRequest, TypeAdapter<T> typeAdapter)
+	{
+		if (this.loadBalancer != null)
+		{
+			// The replica is given back once the whole stream was read, its outcome is not known here
+			LoadBalancer.Replica replica = this.loadBalancer.acquire();
+			HttpRequest<?> rerouted;
+			try
+			{
+				rerouted = this.loadBalancer.reroute(httpRequest, replica);
+			}
+			catch (RuntimeException exception)
+			{
+				this.loadBalancer.release(replica);
+				throw exception;
+			}
+			return RowIterator.start(rerouted, typeAdapter, this.streamBufferSize, runnable -> this.executorService.execute(() -> {
+				try
+				{
+					runnable.run();
+				}
+				finally
+				{
+					this.loadBalancer.release(replica, -1, false);
+				}
+			}));
+		}
+		return RowIterator.start(httpRequest, typeAdapter, this.streamBufferSize, this.executorService);
+	}
+
+	//endregion
+
+	//region GET PUBLISHER
+
+	@Override
+	public Publisher<Map<String, Object>> zgetPublisher(String eid, Map<String, Object> queryParams)
+	{
+		return zgetPublisher(eid, queryParams, null, this.codecRegistry.getMapAdapter());
+	}
+
+	@Override
+	public <T> Publisher<T> zgetPublisher(String eid, Map<String, Object> queryParams, Type typeOfT)
+	{
+		return zgetPublisher(eid, queryParams, null, this.codecRegistry.<T>getAdapter(typeOfT));
+	}
+
+	@Override
+	public <T> Publisher<T> zgetPublisher(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Type typeOfT)
+	{
+		return zgetPublisher(eid, queryParams, queryParamsCollection, this.codecRegistry.<T>getAdapter(typeOfT));
+	}
+
+	private <T> Publisher<T> zgetPublisher(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, TypeAdapter<T> typeAdapter)
+	{
+		return new RowPublisher<>(() -> openRows(eid, queryParams, queryParamsCollection, typeAdapter), this.executorService);
+	}
+
+	//endregion
+
+	//region GET CURSOR
+
+	@Override
+	public PageCursor<Map<String, Object>> zgetCursor(String eid, Map<String, Object> queryParams, int pageSize, int prefetch) throws Exception
+	{
+		return zgetCursor(eid, queryParams, null, pageSize, prefetch,
+				(resultProcessor, pagination) -> resultProcessor.parseToListMap(pagination));
+	}
+
+	@Override
+	public <T> PageCursor<T> zgetCursor(String eid, Map<String, Object> queryParams, int pageSize, int prefetch, Type typeOfT) throws Exception
+	{
+		return zgetCursor(eid, queryParams, null, pageSize, prefetch,
+				(resultProcessor, pagination) -> resultProcessor.parseToList(typeOfT, pagination));
+	}
+
+	@Override
+	public <T> PageCursor<T> zgetCursor(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int prefetch, Type typeOfT) throws Exception
+	{
+		return zgetCursor(eid, queryParams, queryParamsCollection, pageSize, prefetch,
+				(resultProcessor, pagination) -> resultProcessor.parseToList(typeOfT, pagination));
+	}
+
+	private <T> PageCursor<T> zgetCursor(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int prefetch, PageCursor.PageDecoder<T> pageDecoder)
+	{
+		return new PageCursor<>(getPageFetcher(eid, queryParams, queryParamsCollection), pageDecoder, pageSize, prefetch);
+	}
+
+	private PageCursor.PageFetcher getPageFetcher(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection)
+	{
+		Map<String, String> routeParams = new HashMap<>();
+		routeParams.put("eid", eid);
+		return pagination -> zGet("/zget/{eid}", routeParams, getPageQueryParams(queryParams, pagination), queryParamsCollection);
+	}
+
+	//endregion
+
+	//region GET ALL PAGES
+
+	@Override
+	public List<Map<String, Object>> zgetAllPages(String eid, Map<String, Object> queryParams, int pageSize, int parallelism) throws Exception
+	{
+		return new PageFanOut<>(this.executorService, getPageFetcher(eid, queryParams, null),
+				(resultProcessor, pagination) -> resultProcessor.parseToListMap(pagination), pageSize, parallelism).collect();
+	}
+
+	@Override
+	public <T> List<T> zgetAllPages(String eid, Map<String, Object> queryParams, int pageSize, int parallelism, Type typeOfT) throws Exception
+	{
+		return zgetAllPages(eid, queryParams, null, pageSize, parallelism, typeOfT);
+	}
+
+	@Override
+	public <T> List<T> zgetAllPages(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int parallelism, Type typeOfT) throws Exception
+	{
+		return new PageFanOut<T>(this.executorService, getPageFetcher(eid, queryParams, queryParamsCollection),
+				(resultProcessor, pagination) -> resultProcessor.parseToList(typeOfT, pagination), pageSize, parallelism).collect();
+	}
+
+	@Override
+	public <T> void zgetAllPages(String eid, Map<String, Object> queryParams, int pageSize, int parallelism, Type typeOfT, Consumer<List<T>> pageConsumer) throws Exception
+	{
+		zgetAllPages(eid, queryParams, null, pageSize, parallelism, typeOfT, pageConsumer);
+	}
+
+	@Override
+	public <T> void zgetAllPages(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int parallelism, Type typeOfT, Consumer<List<T>> pageConsumer) throws Exception
+	{
+		new PageFanOut<T>(this.executorService, getPageFetcher(eid, queryParams, queryParamsCollection),
+				(resultProcessor, pagination) -> resultProcessor.parseToList(typeOfT, pagination), pageSize, parallelism).run(false, pageConsumer);
+	}
+
+	/**
+	 * Copy of queryParams with the skip and page size of the pagination added
+	 */
+	Map<String, Object> getPageQueryParams(Map<String, Object> queryParams, Pagination pagination)
+	{
+		Map<String, Object> pageQueryParams = queryParams != null ? new HashMap<>(queryParams) : new HashMap<>();
+		pageQueryParams.put(this.skipParameter, pagination.getSkip());
+		pageQueryParams.put(this.pageSizeParameter, pagination.getPageSize());
+		return pageQueryParams;
+	}
+
+	//endregion
+
 	@Override
 	public String zgetJSONString(String eid, Map<String, Object> queryParams) throws Exception
 	{
@@ -650,6 +1998,127 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 		return isKeyRequired;
 	}
 
+	public CodecRegistry getCodecRegistry()
+	{
+		return codecRegistry;
+	}
+
+	public ExecutorService getExecutorService()
+	{
+		return executorService;
+	}
+
+	/**
+	 * View of this client whose calls follow the given options, e.g. a deadline. The view shares the connection pool,
+	 * caches and every other component of this client, closing it does nothing
+	 * @param callOptions
+	 * @return
+	 */
+	@Override
+	public DbFlareClient withOptions(CallOptions callOptions)
+	{
+		return new DbFlareClient(this, callOptions);
+	}
+
+	/**
+	 * Non-blocking view of this client sharing the same configuration
+	 * @return
+	 */
+	public IAsyncDbFlareClient async()
+	{
+		return asyncDbFlareClient;
+	}
+
+	/**
+	 * Registry receiving the metrics of the calls of this client, a MetricsRegistry unless another one was configured
+	 * @return
+	 */
+	public IMetricsRegistry getMetricsRegistry()
+	{
+		return metricsRegistry;
+	}
+
+	/**
+	 * Connections of the pool used by every request except streamed reads
+	 * @return
+	 */
+	public ConnectionPoolStats getConnectionPoolStats()
+	{
+		return connectionPool.getStats();
+	}
+
+	/**
+	 * Connections of the pool used by zgetStream and zgetPublisher
+	 * @return
+	 */
+	public ConnectionPoolStats getStreamConnectionPoolStats()
+	{
+		return connectionPool.getStreamStats();
+	}
+
+	/**
+	 * Statistics of the result cache, null when no eid is cached
+	 * @return
+	 */
+	public CacheStats getCacheStats()
+	{
+		return resultCache != null ? resultCache.getStats() : null;
+	}
+
+	/**
+	 * Body bytes sent and received by the non-streamed requests of this client, before and after gzip. Results served
+	 * from a cache are not counted
+	 * @return
+	 */
+	public CompressionStats getCompressionStats()
+	{
+		return new CompressionStats(requestBytes.sum(), requestWireBytes.sum(), responseBytes.sum(), responseWireBytes.sum());
+	}
+
+	/**
+	 * Current concurrency limit and its use, null when concurrency is not limited
+	 * @return
+	 */
+	public ConcurrencyLimitStats getConcurrencyLimitStats()
+	{
+		return concurrencyLimiter != null ? concurrencyLimiter.getStats() : null;
+	}
+
+	/**
+	 * Health, requests in flight and latency of every replica, empty unless several base urls are configured
+	 * @return
+	 */
+	public List<ReplicaStats> getReplicaStats()
+	{
+		return loadBalancer != null ? loadBalancer.getStats() : Collections.emptyList();
+	}
+
+	/**
+	 * State of the circuit breaker of every endpoint called so far, empty when circuit breakers are not enabled. With
+	 * several base urls the endpoints are the request urls of each replica, such as http://replica-2/zget/jobsheets
+	 * @return
+	 */
+	public Map<String, CircuitBreakerEvent.State> getCircuitBreakerStates()
+	{
+		return circuitBreaker != null ? circuitBreaker.getStates() : Collections.emptyMap();
+	}
+
+	/**
+	 * Drop the cached results of an eid, e.g. after it was written by another application
+	 * @param eid
+	 */
+	public void invalidateCache(String eid)
+	{
+		if (resultCache != null)
+		{
+			resultCache.invalidate(eid);
+		}
+		if (validatorCache != null)
+		{
+			validatorCache.invalidate(eid);
+		}
+	}
+
 	public void setKeyRequired(boolean keyRequired)
 	{
 		isKeyRequired = keyRequired;
@@ -689,4 +2158,53 @@ public class DbFlareClient implements IDbFlareClient, IRestClient
 	}
 
 	//endregion
+
+	/**
+	 * Close the connection pool of the client. Batched inserts and the writes of open BatchWriters still waiting are
+	 * sent first, and close waits for them to complete. Requests sent after close fail
+	 */
+	@Override
+	public void close()
+	{
+		if (this.callOptions != null)
+		{
+			// A view of another client, which owns the pool
+			return;
+		}
+
+		// Rows still lingering are sent before the pool goes away
+		List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+		for (InsertBatcher insertBatcher : this.insertBatchers.values())
+		{
+			insertBatcher.close();
+			inFlight.add(insertBatcher.getInFlight());
+		}
+		for (BatchWriter batchWriter : this.batchWriters)
+		{
+			batchWriter.close();
+			inFlight.add(batchWriter.getInFlight());
+		}
+		awaitQuietly(inFlight);
+
+		if (this.loadBalancer != null)
+		{
+			this.loadBalancer.close();
+		}
+		this.connectionPool.close();
+	}
+
+	/**
+	 * Wait for the given requests, their failures are left to their callers
+	 */
+	private static void awaitQuietly(List<CompletableFuture<Void>> futures)
+	{
+		try
+		{
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException | CancellationException exception)
+		{
+			logger.debug("A request sent while closing failed", exception);
+		}
+	}
 }
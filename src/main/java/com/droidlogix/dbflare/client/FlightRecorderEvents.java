@@ -0,0 +1,73 @@
+package com.droidlogix.dbflare.client;
+
+/**
+ * Emits the JDK Flight Recorder events of DbFlare calls. An event is only allocated and begun while its type is
+ * enabled in a recording. The events are compiled from src/main/java-jfr by the flight-recorder profile, which is
+ * active when the client is built on JDK 11 or later. They are loaded by name, so the client still runs on a Java 8
+ * JVM without Flight Recorder, and a client built on JDK 8 simply emits no events
+ */
+final class FlightRecorderEvents
+{
+	private static final IFlightRecorder FLIGHT_RECORDER = load();
+
+	private FlightRecorderEvents()
+	{
+	}
+
+	/**
+	 * @return the begun event of a request, null when it is not recorded
+	 */
+	static Object beginRequest()
+	{
+		return FLIGHT_RECORDER != null ? FLIGHT_RECORDER.beginRequest() : null;
+	}
+
+	/**
+	 * @param event event returned by beginRequest
+	 * @param status status of the response, -1 when the request failed without one
+	 */
+	static void commitRequest(Object event, String method, String route, String eid, int status, long requestBytes, long responseBytes)
+	{
+		if (event != null)
+		{
+			FLIGHT_RECORDER.commitRequest(event, method, route, eid, status, requestBytes, responseBytes);
+		}
+	}
+
+	/**
+	 * @return the begun event of a decode, null when it is not recorded
+	 */
+	static Object beginDecode()
+	{
+		return FLIGHT_RECORDER != null ? FLIGHT_RECORDER.beginDecode() : null;
+	}
+
+	/**
+	 * @param event event returned by beginDecode
+	 * @param rows rows decoded, 1 for a single object
+	 */
+	static void commitDecode(Object event, String route, String eid, long responseBytes, int rows)
+	{
+		if (event != null)
+		{
+			FLIGHT_RECORDER.commitDecode(event, route, eid, responseBytes, rows);
+		}
+	}
+
+	/**
+	 * @return the recorder of the events, null when jdk.jfr or the event classes are missing
+	 */
+	private static IFlightRecorder load()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+			return (IFlightRecorder) Class.forName(FlightRecorderEvents.class.getPackage().getName() + ".FlightRecorder")
+					.getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError exception)
+		{
+			return null;
+		}
+	}
+}
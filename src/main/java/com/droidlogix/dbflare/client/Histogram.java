@@ -0,0 +1,40 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two buckets: bucket i counts the latencies of at least 2^(i-1) and less
+ * than 2^i microseconds, the last bucket also counts everything longer
+ */
+class Histogram
+{
+	private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+	private final LongAdder totalMicros = new LongAdder();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	void record(long nanos)
+	{
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		this.counts.incrementAndGet(Math.min(LatencyHistogram.BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+		this.totalMicros.add(micros);
+		this.maxMicros.accumulateAndGet(micros, Math::max);
+	}
+
+	/**
+	 * Buckets are read one at a time, a snapshot taken while latencies are recorded may be off by those
+	 */
+	LatencyHistogram getSnapshot()
+	{
+		long[] bucketCounts = new long[LatencyHistogram.BUCKETS];
+		for (int i = 0; i < bucketCounts.length; i++)
+		{
+			bucketCounts[i] = this.counts.get(i);
+		}
+		return new LatencyHistogram(bucketCounts, this.totalMicros.sum(), this.maxMicros.get());
+	}
+}
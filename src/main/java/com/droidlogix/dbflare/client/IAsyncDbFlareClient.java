@@ -0,0 +1,122 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.Pagination;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of IDbFlareClient. Every method returns as soon as the request is sent, the response is
+ * decoded in a later stage of the returned CompletableFuture. Failures complete the future exceptionally.
+ * @author John Pili
+ */
+public interface IAsyncDbFlareClient
+{
+	/**
+	 * Insert a record and expect the generated record as a result.
+	 * @param eid
+	 * @param item
+	 * @param typeOfT
+	 * @param <T>
+	 * @return
+	 */
+	<T> CompletableFuture<T> zinsert(String eid, T item, Type typeOfT);
+
+	<T> CompletableFuture<Map<String, Object>> zinsert(String eid, T item);
+
+	/**
+	 * Insert a record and expect the generated record as a result. This support bulk insert
+	 * @param eid
+	 * @param item
+	 * @param typeOfT
+	 * @param <T>
+	 * @return
+	 */
+	<T> CompletableFuture<List<T>> zinsert(String eid, List<T> item, Type typeOfT);
+
+	<T> CompletableFuture<List<Map<String, Object>>> zinsert(String eid, List<T> item);
+
+	/**
+	 * Update a record and expect the updated record as a result.
+	 * @param eid
+	 * @param queryParams
+	 * @param item
+	 * @param typeOfT
+	 * @param <T>
+	 * @return
+	 */
+	<T> CompletableFuture<T> zupdate(String eid, Map<String, Object> queryParams, T item, Type typeOfT);
+
+	<T> CompletableFuture<Map<String, Object>> zupdate(String eid, Map<String, Object> queryParams, T item);
+
+	/**
+	 * Update a record and expect the updated record as a result. This support bulk update
+	 * @param eid
+	 * @param queryParams
+	 * @param item
+	 * @param typeOfT
+	 * @param <T>
+	 * @return
+	 */
+	<T> CompletableFuture<List<T>> zupdate(String eid, Map<String, Object> queryParams, List<T> item, Type typeOfT);
+
+	<T> CompletableFuture<List<Map<String, Object>>> zupdate(String eid, Map<String, Object> queryParams, List<T> item);
+
+	/**
+	 * Delete a record
+	 * @param eid
+	 * @param queryParams
+	 * @return
+	 */
+	CompletableFuture<Void> zdelete(String eid, Map<String, Object> queryParams);
+
+	CompletableFuture<Map<String, Object>> zgetOne(String eid, Map<String, Object> queryParams);
+
+	CompletableFuture<Map<String, Object>> zgetOne(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection);
+
+	<T> CompletableFuture<T> zgetOne(String eid, Map<String, Object> queryParams, Type typeOfT);
+
+	<T> CompletableFuture<T> zgetOne(String eid, Map<String, Object> queryParams, IObjectAssembler objectAssembler);
+
+	CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams);
+
+	CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams, Pagination pagination);
+
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Type typeOfT);
+
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, IObjectAssembler objectAssembler);
+
+	/**
+	 * Get result as List of T. The total of the pagination is filled in when the future completes
+	 * @param eid
+	 * @param queryParams
+	 * @param pagination
+	 * @param typeOfT
+	 * @param <T>
+	 * @return
+	 */
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Pagination pagination, Type typeOfT);
+
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Pagination pagination, IObjectAssembler objectAssembler);
+
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Type typeOfT);
+
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, IObjectAssembler objectAssembler);
+
+	CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection);
+
+	<T> CompletableFuture<List<T>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Pagination pagination, Type typeOfT);
+
+	CompletableFuture<List<Map<String, Object>>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Pagination pagination);
+
+	/**
+	 * Execute a non select native query
+	 * @param eid
+	 * @param queryParams
+	 * @return
+	 */
+	CompletableFuture<String> zexecuteJSON(String eid, Map<String, Object> queryParams);
+}
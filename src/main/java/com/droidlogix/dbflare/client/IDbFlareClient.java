@@ -1,14 +1,20 @@
 package com.droidlogix.dbflare.client;
 
+import com.droidlogix.dbflare.client.models.BulkResult;
 import com.droidlogix.dbflare.client.models.Pagination;
+import org.reactivestreams.Publisher;
 
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
+ * The bulk, streamed, paged and withOptions methods were added after the first releases. They are default methods
+ * throwing UnsupportedOperationException so existing implementations of this interface keep compiling.
  * @author John Pili
  * @since 2016-11-14
  */
@@ -102,6 +108,51 @@ public interface IDbFlareClient
 	 */
 	<T> List<Map<String, Object>> zupdate(String eid, Map<String, Object> urlParameters, List<T> item) throws Exception;
 
+	/**
+	 * Insert a large list of records in chunks of chunkSize with at most parallelism chunks in flight. Failed chunks
+	 * are reported in the result instead of stopping the others.
+	 * @param eid
+	 * @param items
+	 * @param chunkSize
+	 * @param parallelism
+	 * @param typeOfT
+	 * @param <T>
+	 * @return results and failures of every chunk in input order
+	 * @throws Exception
+	 */
+	default <T> BulkResult<T> zinsertBulk(String eid, List<T> items, int chunkSize, int parallelism, Type typeOfT) throws Exception
+	{
+		throw new UnsupportedOperationException("zinsertBulk is not supported by " + getClass().getName());
+	}
+
+	default <T> BulkResult<Map<String, Object>> zinsertBulk(String eid, List<T> items, int chunkSize, int parallelism) throws Exception
+	{
+		throw new UnsupportedOperationException("zinsertBulk is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Update a large list of records in chunks of chunkSize with at most parallelism chunks in flight. Failed chunks
+	 * are reported in the result instead of stopping the others.
+	 * @param eid
+	 * @param urlParameters
+	 * @param items
+	 * @param chunkSize
+	 * @param parallelism
+	 * @param typeOfT
+	 * @param <T>
+	 * @return results and failures of every chunk in input order
+	 * @throws Exception
+	 */
+	default <T> BulkResult<T> zupdateBulk(String eid, Map<String, Object> urlParameters, List<T> items, int chunkSize, int parallelism, Type typeOfT) throws Exception
+	{
+		throw new UnsupportedOperationException("zupdateBulk is not supported by " + getClass().getName());
+	}
+
+	default <T> BulkResult<Map<String, Object>> zupdateBulk(String eid, Map<String, Object> urlParameters, List<T> items, int chunkSize, int parallelism) throws Exception
+	{
+		throw new UnsupportedOperationException("zupdateBulk is not supported by " + getClass().getName());
+	}
+
 	<T> IResultProcessor zUpsert(String eid, Map<String, Object> queryParams, T payload) throws Exception;
 
 	<T> IResultProcessor zUpsert(String eid, Map<String, Object> queryParams, List<T> payloads) throws Exception;
@@ -149,7 +200,8 @@ public interface IDbFlareClient
 	<T> T zgetOne(String eid, Map<String, Object> queryParams, IObjectAssembler objectAssembler) throws Exception;
 
 	/**
-	 * Get result as List Map
+	 * Get result as List Map. The whole response body is read before it is decoded and every row is held in the
+	 * list, use zgetStream or zgetAllPages with a page consumer for large results
 	 * @param eid
 	 * @param urlParameters
 	 * @return
@@ -160,7 +212,8 @@ public interface IDbFlareClient
 	List<Map<String, Object>> zgetList(String eid, Map<String, Object> urlParameters, Pagination pagination) throws Exception;
 
 	/**
-	 * Get result as List of T
+	 * Get result as List of T. Like every zgetList the result is held in memory at once, see zgetStream for large
+	 * results
 	 * @param eid
 	 * @param urlParameters
 	 * @param typeOfT
@@ -230,6 +283,173 @@ public interface IDbFlareClient
 	List<Map<String, Object>> zgetList(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Pagination pagination) throws Exception;
 
 
+	/**
+	 * Get result as a lazily decoded Stream of Map. Rows are decoded one at a time as the stream is consumed,
+	 * so memory stays bounded regardless of the size of the result. The stream must be closed.
+	 * @param eid
+	 * @param queryParams
+	 * @return Stream of Map
+	 * @throws Exception
+	 */
+	default Stream<Map<String, Object>> zgetStream(String eid, Map<String, Object> queryParams) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetStream is not supported by " + getClass().getName());
+	}
+
+	default Stream<Map<String, Object>> zgetStream(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetStream is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Get result as a lazily decoded Stream of T. Rows are decoded one at a time as the stream is consumed,
+	 * so memory stays bounded regardless of the size of the result. The stream must be closed.
+	 * @param eid
+	 * @param queryParams
+	 * @param typeOfT
+	 * @param <T>
+	 * @return Stream of T
+	 * @throws Exception
+	 */
+	default <T> Stream<T> zgetStream(String eid, Map<String, Object> queryParams, Type typeOfT) throws Exception
+	{
+		return zgetStream(eid, queryParams, null, typeOfT);
+	}
+
+	default <T> Stream<T> zgetStream(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Type typeOfT) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetStream is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Get result as a Reactive Streams Publisher of Map. Each subscription sends its own request and rows are decoded
+	 * and emitted only as the subscriber requests them; a slow subscriber pauses reading from the socket.
+	 * @param eid
+	 * @param queryParams
+	 * @return Publisher of Map
+	 */
+	default Publisher<Map<String, Object>> zgetPublisher(String eid, Map<String, Object> queryParams)
+	{
+		throw new UnsupportedOperationException("zgetPublisher is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Get result as a Reactive Streams Publisher of T. Each subscription sends its own request and rows are decoded
+	 * and emitted only as the subscriber requests them; a slow subscriber pauses reading from the socket.
+	 * @param eid
+	 * @param queryParams
+	 * @param typeOfT
+	 * @param <T>
+	 * @return Publisher of T
+	 */
+	default <T> Publisher<T> zgetPublisher(String eid, Map<String, Object> queryParams, Type typeOfT)
+	{
+		return zgetPublisher(eid, queryParams, null, typeOfT);
+	}
+
+	default <T> Publisher<T> zgetPublisher(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, Type typeOfT)
+	{
+		throw new UnsupportedOperationException("zgetPublisher is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Walk all the pages of an eid as Map. Up to prefetch following pages are requested in the background while
+	 * the current page is processed. The page is requested with the skip and page size query parameters of the client.
+	 * @param eid
+	 * @param queryParams
+	 * @param pageSize
+	 * @param prefetch number of pages requested ahead of the current page
+	 * @return PageCursor of Map
+	 * @throws Exception
+	 */
+	default PageCursor<Map<String, Object>> zgetCursor(String eid, Map<String, Object> queryParams, int pageSize, int prefetch) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetCursor is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Walk all the pages of an eid as T. Up to prefetch following pages are requested in the background while
+	 * the current page is processed. The page is requested with the skip and page size query parameters of the client.
+	 * @param eid
+	 * @param queryParams
+	 * @param pageSize
+	 * @param prefetch number of pages requested ahead of the current page
+	 * @param typeOfT
+	 * @param <T>
+	 * @return PageCursor of T
+	 * @throws Exception
+	 */
+	default <T> PageCursor<T> zgetCursor(String eid, Map<String, Object> queryParams, int pageSize, int prefetch, Type typeOfT) throws Exception
+	{
+		return zgetCursor(eid, queryParams, null, pageSize, prefetch, typeOfT);
+	}
+
+	default <T> PageCursor<T> zgetCursor(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int prefetch, Type typeOfT) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetCursor is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Get every page of an eid as List Map. The first page is read to learn the total, the remaining pages are
+	 * requested concurrently with at most parallelism requests in flight and merged in page order. Without a total the
+	 * pages are read one after another until a short page.
+	 * @param eid
+	 * @param queryParams
+	 * @param pageSize
+	 * @param parallelism
+	 * @return
+	 * @throws Exception
+	 */
+	default List<Map<String, Object>> zgetAllPages(String eid, Map<String, Object> queryParams, int pageSize, int parallelism) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetAllPages is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Get every page of an eid as List of T. The first page is read to learn the total, the remaining pages are
+	 * requested concurrently with at most parallelism requests in flight and merged in page order. Without a total the
+	 * pages are read one after another until a short page.
+	 * @param eid
+	 * @param queryParams
+	 * @param pageSize
+	 * @param parallelism
+	 * @param typeOfT
+	 * @param <T>
+	 * @return List of T
+	 * @throws Exception
+	 */
+	default <T> List<T> zgetAllPages(String eid, Map<String, Object> queryParams, int pageSize, int parallelism, Type typeOfT) throws Exception
+	{
+		return zgetAllPages(eid, queryParams, null, pageSize, parallelism, typeOfT);
+	}
+
+	default <T> List<T> zgetAllPages(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int parallelism, Type typeOfT) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetAllPages is not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Same as zgetAllPages but every page is handed to pageConsumer, on the calling thread, as soon as it is decoded.
+	 * Pages are therefore not in order and never all held in memory.
+	 * @param eid
+	 * @param queryParams
+	 * @param pageSize
+	 * @param parallelism
+	 * @param typeOfT
+	 * @param pageConsumer
+	 * @param <T>
+	 * @throws Exception
+	 */
+	default <T> void zgetAllPages(String eid, Map<String, Object> queryParams, int pageSize, int parallelism, Type typeOfT, Consumer<List<T>> pageConsumer) throws Exception
+	{
+		zgetAllPages(eid, queryParams, null, pageSize, parallelism, typeOfT, pageConsumer);
+	}
+
+	default <T> void zgetAllPages(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection, int pageSize, int parallelism, Type typeOfT, Consumer<List<T>> pageConsumer) throws Exception
+	{
+		throw new UnsupportedOperationException("zgetAllPages is not supported by " + getClass().getName());
+	}
+
 	String zgetJSONString(String eid, Map<String, Object> queryParams) throws Exception;
 
 	String zgetJSONString(String eid, Map<String, Object> queryParams, Map<String, Collection<?>> queryParamsCollection) throws Exception;
@@ -278,4 +498,15 @@ public interface IDbFlareClient
 	 * @throws Exception
 	 */
 	String zexecuteJSON(String eid, Map<String, Object> queryParams) throws Exception;
+
+	/**
+	 * View of this client whose calls follow the given options, e.g. a deadline after which a call fails with a
+	 * DeadlineExceededException and its request is aborted
+	 * @param callOptions
+	 * @return
+	 */
+	default IDbFlareClient withOptions(CallOptions callOptions)
+	{
+		throw new UnsupportedOperationException("withOptions is not supported by " + getClass().getName());
+	}
 }
@@ -0,0 +1,30 @@
+package com.droidlogix.dbflare.client;
+
+/**
+ * Begins and commits the Flight Recorder events of DbFlare calls, implemented apart from the client so that it builds
+ * and runs without jdk.jfr. Events are passed around as Object for the same reason
+ */
+interface IFlightRecorder
+{
+	/**
+	 * @return the begun event of a request, null when it is not recorded
+	 */
+	Object beginRequest();
+
+	/**
+	 * @param event event returned by beginRequest
+	 * @param status status of the response, -1 when the request failed without one
+	 */
+	void commitRequest(Object event, String method, String route, String eid, int status, long requestBytes, long responseBytes);
+
+	/**
+	 * @return the begun event of a decode, null when it is not recorded
+	 */
+	Object beginDecode();
+
+	/**
+	 * @param event event returned by beginDecode
+	 * @param rows rows decoded, 1 for a single object
+	 */
+	void commitDecode(Object event, String route, String eid, long responseBytes, int rows);
+}
@@ -0,0 +1,43 @@
+package com.droidlogix.dbflare.client;
+
+/**
+ * Receives the measurements of the calls of a DbFlareClient per operation, such as zget or zinsert, and eid. It is
+ * called on caller and I/O threads and must not block. MetricsRegistry keeps them in memory, other implementations
+ * can bridge them to a monitoring system.
+ */
+public interface IMetricsRegistry
+{
+	/**
+	 * A request body was sent
+	 * @param operation
+	 * @param eid null when the call has none
+	 * @param bytes size of the body as sent, after compression
+	 */
+	void recordRequestBytes(String operation, String eid, long bytes);
+
+	/**
+	 * A response was received, whatever its status
+	 * @param operation
+	 * @param eid null when the call has none
+	 * @param networkNanos time from the call to the whole response, including retries and waits for a connection
+	 * @param bytes size of the body as received, before decompression
+	 */
+	void recordResponse(String operation, String eid, long networkNanos, long bytes);
+
+	/**
+	 * A response was decoded
+	 * @param operation
+	 * @param eid null when the call has none
+	 * @param decodeNanos time spent decoding the body
+	 */
+	void recordDecode(String operation, String eid, long decodeNanos);
+
+	/**
+	 * A call failed, recorded once per call
+	 * @param operation
+	 * @param eid null when the call has none
+	 * @param error the status of an unsuccessful response, such as HTTP 503, DbFlareException for errors returned with a
+	 * successful status, or the simple name of the exception
+	 */
+	void recordError(String operation, String eid, String error);
+}
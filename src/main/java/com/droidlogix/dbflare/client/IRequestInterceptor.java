@@ -0,0 +1,24 @@
+package com.droidlogix.dbflare.client;
+
+import kong.unirest.HttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Intercepts the calls of a DbFlareClient, e.g. to propagate tracing headers, sample or throttle. Interceptors run in
+ * the order they were configured, each around the next one, and the last one around the request itself.
+ */
+public interface IRequestInterceptor
+{
+	/**
+	 * Called on the calling thread once the request is prepared. Call call.proceed() to send the request, possibly
+	 * after adding headers, and inspect the response it completes with; or skip it and answer with a cached or
+	 * synthetic response built by call.respond. The reads of zgetStream and zgetPublisher must proceed before intercept
+	 * returns, their response completes with the status and headers once they are received and has no body, the rows
+	 * are streamed to the caller instead; a response they are answered with is decoded into rows
+	 * @param call
+	 * @return the response of the call, a failed future fails the call
+	 * @throws Exception fails the call
+	 */
+	CompletableFuture<HttpResponse<byte[]>> intercept(InterceptedCall call) throws Exception;
+}
@@ -9,6 +9,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Decodes the response of a request. When the request itself failed, every method throws the cause of the failure,
+ * such as a CircuitBreakerOpenException or an IOException, instead of the ExecutionException of the response Future.
+ * A cause that is not an Exception is still thrown wrapped in the ExecutionException.
+ */
 public interface IResultProcessor
 {
 	JsonElement parse() throws Exception;
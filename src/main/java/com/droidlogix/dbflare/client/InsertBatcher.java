@@ -0,0 +1,200 @@
+package com.droidlogix.dbflare.client;
+
+import com.google.gson.JsonElement;
+import kong.unirest.HttpResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Groups single-row inserts of an eid into one list insert. A batch is sent when it reaches maxBatchSize or when its
+ * first row has waited for linger, whichever comes first. The returned records are handed back to the callers in the
+ * order of their rows. A closed batcher sends its pending rows and rejects new ones.
+ */
+class InsertBatcher
+{
+	/**
+	 * Send the rows of a batch as a single list insert
+	 */
+	interface BatchSender
+	{
+		CompletableFuture<HttpResponse<byte[]>> send(List<Object> items) throws Exception;
+	}
+
+	private static class Pending
+	{
+		private final Object item;
+		private final CompletableFuture<JsonElement> result;
+
+		private Pending(Object item, CompletableFuture<JsonElement> result)
+		{
+			this.item = item;
+			this.result = result;
+		}
+	}
+
+	private final BatchSender batchSender;
+	private final CodecRegistry codecRegistry;
+	private final Executor executor;
+	private final int maxBatchSize;
+	private final long lingerMillis;
+	private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+	private List<Pending> pending = new ArrayList<>();
+	private ScheduledFuture<?> lingerTimer;
+	private boolean closed;
+
+	InsertBatcher(BatchSender batchSender, CodecRegistry codecRegistry, Executor executor, int maxBatchSize, long lingerMillis)
+	{
+		if (maxBatchSize <= 0)
+		{
+			throw new IllegalArgumentException("maxBatchSize must be greater than zero");
+		}
+
+		this.batchSender = batchSender;
+		this.codecRegistry = codecRegistry;
+		this.executor = executor;
+		this.maxBatchSize = maxBatchSize;
+		this.lingerMillis = lingerMillis;
+	}
+
+	/**
+	 * Queue a row for the next batch
+	 * @param item
+	 * @return the inserted record as returned by DbFlare
+	 */
+	CompletableFuture<JsonElement> add(Object item)
+	{
+		CompletableFuture<JsonElement> result = new CompletableFuture<>();
+		List<Pending> batch = null;
+		synchronized (this)
+		{
+			if (this.closed)
+			{
+				result.completeExceptionally(new IllegalStateException("DbFlareClient is closed"));
+				return result;
+			}
+
+			this.pending.add(new Pending(item, result));
+			if (this.pending.size() >= this.maxBatchSize)
+			{
+				batch = takePending();
+			}
+			else if (this.pending.size() == 1)
+			{
+				// The scheduler thread only hands the flush over, the send serializes and may wait for a slot
+				this.lingerTimer = DbFlareClient.getScheduler().schedule(() -> this.executor.execute(this::flush), this.lingerMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (batch != null)
+		{
+			send(batch);
+		}
+		return result;
+	}
+
+	void flush()
+	{
+		List<Pending> batch;
+		synchronized (this)
+		{
+			if (this.pending.isEmpty())
+			{
+				return;
+			}
+			batch = takePending();
+		}
+		send(batch);
+	}
+
+	/**
+	 * Send the pending rows and reject further ones
+	 */
+	void close()
+	{
+		synchronized (this)
+		{
+			this.closed = true;
+		}
+		flush();
+	}
+
+	/**
+	 * @return completes once every batch sent so far has completed
+	 */
+	CompletableFuture<Void> getInFlight()
+	{
+		return CompletableFuture.allOf(this.inFlight.toArray(new CompletableFuture<?>[0]));
+	}
+
+	private List<Pending> takePending()
+	{
+		List<Pending> batch = this.pending;
+		this.pending = new ArrayList<>();
+		if (this.lingerTimer != null)
+		{
+			this.lingerTimer.cancel(false);
+			this.lingerTimer = null;
+		}
+		return batch;
+	}
+
+	private void send(List<Pending> batch)
+	{
+		List<Object> items = new ArrayList<>(batch.size());
+		for (Pending pending : batch)
+		{
+			items.add(pending.item);
+		}
+
+		try
+		{
+			CompletableFuture<HttpResponse<byte[]>> sent = this.batchSender.send(items);
+			this.inFlight.add(sent);
+			sent.whenCompleteAsync((response, throwable) -> {
+				this.inFlight.remove(sent);
+				if (throwable != null)
+				{
+					fail(batch, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+					return;
+				}
+				complete(batch, response);
+			}, this.executor);
+		}
+		catch (Exception exception)
+		{
+			fail(batch, exception);
+		}
+	}
+
+	private void complete(List<Pending> batch, HttpResponse<byte[]> response)
+	{
+		try
+		{
+			List<JsonElement> records = new ResultProcessor(CompletableFuture.completedFuture(response), this.codecRegistry).parseToList(JsonElement.class);
+			if (records == null || records.size() != batch.size())
+			{
+				throw new Exception("Batched insert of " + batch.size() + " records returned " + (records != null ? records.size() : 0) + " records");
+			}
+
+			for (int i = 0; i < batch.size(); i++)
+			{
+				batch.get(i).result.complete(records.get(i));
+			}
+		}
+		catch (Exception exception)
+		{
+			fail(batch, exception);
+		}
+	}
+
+	private void fail(List<Pending> batch, Throwable throwable)
+	{
+		for (Pending pending : batch)
+		{
+			pending.result.completeExceptionally(throwable);
+		}
+	}
+}
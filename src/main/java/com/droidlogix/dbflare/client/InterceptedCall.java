@@ -0,0 +1,157 @@
+package com.droidlogix.dbflare.client;
+
+import kong.unirest.Headers;
+import kong.unirest.HttpRequest;
+import kong.unirest.HttpResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A call as seen by an IRequestInterceptor, the chain of the interceptors that follow it included
+ */
+public class InterceptedCall
+{
+	private final List<IRequestInterceptor> interceptors;
+	private final int index;
+	private final String method;
+	private final String route;
+	private final String eid;
+	private final HttpRequest<?> httpRequest;
+	private final long startNanos;
+	private final Supplier<CompletableFuture<HttpResponse<byte[]>>> sender;
+
+	InterceptedCall(List<IRequestInterceptor> interceptors, String method, String route, String eid, HttpRequest<?> httpRequest, long startNanos,
+			Supplier<CompletableFuture<HttpResponse<byte[]>>> sender)
+	{
+		this.interceptors = interceptors;
+		this.index = 0;
+		this.method = method;
+		this.route = route;
+		this.eid = eid;
+		this.httpRequest = httpRequest;
+		this.startNanos = startNanos;
+		this.sender = sender;
+	}
+
+	private InterceptedCall(InterceptedCall call, int index)
+	{
+		this.interceptors = call.interceptors;
+		this.index = index;
+		this.method = call.method;
+		this.route = call.route;
+		this.eid = call.eid;
+		this.httpRequest = call.httpRequest;
+		this.startNanos = call.startNanos;
+		this.sender = call.sender;
+	}
+
+	/**
+	 * Hand the call to the next interceptor, or send the request after the last one. The response may come from the
+	 * caches of the client
+	 * @return
+	 */
+	public CompletableFuture<HttpResponse<byte[]>> proceed()
+	{
+		if (this.index == this.interceptors.size())
+		{
+			return this.sender.get();
+		}
+
+		CompletableFuture<HttpResponse<byte[]>> response;
+		try
+		{
+			response = this.interceptors.get(this.index).intercept(new InterceptedCall(this, this.index + 1));
+		}
+		catch (Exception exception)
+		{
+			response = new CompletableFuture<>();
+			response.completeExceptionally(exception);
+			return response;
+		}
+
+		if (response == null)
+		{
+			response = new CompletableFuture<>();
+			response.completeExceptionally(new NullPointerException("Interceptor " + this.interceptors.get(this.index) + " returned no response"));
+		}
+		return response;
+	}
+
+	/**
+	 * Answer the call without sending it
+	 * @param status
+	 * @param body JSON body, decoded like the body of a DbFlare response
+	 * @return
+	 */
+	public CompletableFuture<HttpResponse<byte[]>> respond(int status, byte[] body)
+	{
+		return CompletableFuture.completedFuture(new SyntheticResponse<>(status, body));
+	}
+
+	/**
+	 * Add a header to the request, before proceed
+	 * @param name
+	 * @param value
+	 * @return
+	 */
+	public InterceptedCall header(String name, String value)
+	{
+		this.httpRequest.header(name, value);
+		return this;
+	}
+
+	public Headers getHeaders()
+	{
+		return httpRequest.getHeaders();
+	}
+
+	/**
+	 * @return GET, POST, PUT or DELETE
+	 */
+	public String getMethod()
+	{
+		return method;
+	}
+
+	/**
+	 * @return route of the call, such as /zget/{eid}
+	 */
+	public String getRoute()
+	{
+		return route;
+	}
+
+	/**
+	 * @return eid of the call, null when it has none
+	 */
+	public String getEid()
+	{
+		return eid;
+	}
+
+	/**
+	 * @return url of the request, query string included
+	 */
+	public String getUrl()
+	{
+		return httpRequest.getUrl();
+	}
+
+	/**
+	 * @return System.nanoTime() when the call was made
+	 */
+	public long getStartNanos()
+	{
+		return startNanos;
+	}
+
+	/**
+	 * @return time since the call was made
+	 */
+	public long getElapsedNanos()
+	{
+		return System.nanoTime() - startNanos;
+	}
+}
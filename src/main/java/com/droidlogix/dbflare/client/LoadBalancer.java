@@ -0,0 +1,267 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.exceptions.ConcurrencyLimitExceededException;
+import com.droidlogix.dbflare.client.models.ReplicaStats;
+import kong.unirest.Body;
+import kong.unirest.Header;
+import kong.unirest.HttpRequest;
+import kong.unirest.HttpRequestWithBody;
+import kong.unirest.HttpResponse;
+import kong.unirest.UnirestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Spreads the requests of a client over several DbFlare replicas. Every request goes to the healthy replica with the
+ * fewest requests in flight, ties go to the replica with the lowest recent latency. A replica is ejected after
+ * ejectAfter consecutive failures (I/O error or 5xx) and re-admitted once a background probe of its health path gets
+ * any response below 500. When every replica is ejected requests are spread over all of them rather than failed.
+ */
+class LoadBalancer implements AutoCloseable
+{
+	private static final Logger logger = LoggerFactory.getLogger(LoadBalancer.class);
+	private static final double LATENCY_WEIGHT = 0.3;
+
+	static class Replica
+	{
+		private final String baseURL;
+		private boolean healthy = true;
+		private int inFlight;
+		private double latencyNanos = -1;
+		private int consecutiveFailures;
+		private boolean probing;
+
+		private Replica(String baseURL)
+		{
+			this.baseURL = baseURL;
+		}
+	}
+
+	private final List<Replica> replicas = new ArrayList<>();
+	private final int ejectAfter;
+	private final String healthPath;
+	private final UnirestInstance unirestInstance;
+	private final ScheduledFuture<?> healthCheck;
+
+	LoadBalancer(List<String> baseURLs, int ejectAfter, String healthPath, long healthCheckIntervalMillis, UnirestInstance unirestInstance)
+	{
+		if (baseURLs.isEmpty() || ejectAfter <= 0)
+		{
+			throw new IllegalArgumentException("At least one base url is required and ejectAfter must be greater than zero");
+		}
+
+		for (String baseURL : baseURLs)
+		{
+			this.replicas.add(new Replica(baseURL));
+		}
+		this.ejectAfter = ejectAfter;
+		this.healthPath = healthPath;
+		this.unirestInstance = unirestInstance;
+		this.healthCheck = DbFlareClient.getScheduler().scheduleWithFixedDelay(this::probe, healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Send a request prepared against the base url of the first replica to the chosen replica
+	 * @param httpRequest
+	 * @param sender sends the request to the replica
+	 * @return
+	 */
+	CompletableFuture<HttpResponse<byte[]>> execute(HttpRequest<?> httpRequest, Function<HttpRequest<?>, CompletableFuture<HttpResponse<byte[]>>> sender)
+	{
+		Replica replica = acquire();
+		HttpRequest<?> rerouted;
+		try
+		{
+			rerouted = reroute(httpRequest, replica);
+		}
+		catch (RuntimeException exception)
+		{
+			release(replica);
+			throw exception;
+		}
+
+		long start = System.nanoTime();
+		CompletableFuture<HttpResponse<byte[]>> future;
+		try
+		{
+			future = sender.apply(rerouted);
+		}
+		catch (RuntimeException exception)
+		{
+			release(replica, System.nanoTime() - start, true);
+			throw exception;
+		}
+		return future.whenComplete((response, throwable) -> {
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+			if (cause instanceof CancellationException || cause instanceof ConcurrencyLimitExceededException)
+			{
+				// Given up, such as the loser of a hedged read, or never sent, it says nothing about the replica
+				release(replica);
+				return;
+			}
+			release(replica, System.nanoTime() - start, throwable != null || response.getStatus() >= 500);
+		});
+	}
+
+	/**
+	 * Choose a replica for a request that is not sent through execute, such as a streamed read. It must be given back
+	 * with release
+	 */
+	synchronized Replica acquire()
+	{
+		Replica chosen = null;
+		for (int pass = 0; pass < 2 && chosen == null; pass++)
+		{
+			for (Replica replica : this.replicas)
+			{
+				// The second pass only runs when every replica is ejected
+				if ((replica.healthy || pass == 1) && (chosen == null || isBetter(replica, chosen)))
+				{
+					chosen = replica;
+				}
+			}
+		}
+		chosen.inFlight++;
+		return chosen;
+	}
+
+	/**
+	 * Give back a replica without a verdict on it, the request was given up or never sent
+	 */
+	synchronized void release(Replica replica)
+	{
+		replica.inFlight--;
+	}
+
+	/**
+	 * @param latencyNanos latency of the request, negative when it is not known
+	 */
+	synchronized void release(Replica replica, long latencyNanos, boolean failure)
+	{
+		replica.inFlight--;
+		if (failure)
+		{
+			if (++replica.consecutiveFailures >= this.ejectAfter && replica.healthy)
+			{
+				replica.healthy = false;
+				logger.warn("Ejected DbFlare replica {} after {} consecutive failures", replica.baseURL, replica.consecutiveFailures);
+			}
+			return;
+		}
+
+		replica.consecutiveFailures = 0;
+		if (latencyNanos >= 0)
+		{
+			replica.latencyNanos = replica.latencyNanos < 0 ? latencyNanos : replica.latencyNanos + LATENCY_WEIGHT * (latencyNanos - replica.latencyNanos);
+		}
+	}
+
+	/**
+	 * Copy of the request for the given replica. The headers, the timeouts and a byte array body are copied, the
+	 * request body of the client is always one
+	 * @return the request with the base url of the first replica replaced by the one of the given replica
+	 * @throws IllegalArgumentException when the request has a body that is not a byte array
+	 */
+	HttpRequest<?> reroute(HttpRequest<?> httpRequest, Replica replica)
+	{
+		String canonicalBaseURL = this.replicas.get(0).baseURL;
+		if (replica.baseURL.equals(canonicalBaseURL) || !httpRequest.getUrl().startsWith(canonicalBaseURL))
+		{
+			return httpRequest;
+		}
+
+		Body body = httpRequest.getBody().orElse(null);
+		if (body != null && (body.isMultiPart() || body.uniPart() == null || !(body.uniPart().getValue() instanceof byte[])))
+		{
+			throw new IllegalArgumentException("Unable to send " + httpRequest.getUrl() + " to replica " + replica.baseURL + ", only a byte array body can be copied");
+		}
+
+		HttpRequestWithBody rerouted = this.unirestInstance.request(httpRequest.getHttpMethod().name(), replica.baseURL + httpRequest.getUrl().substring(canonicalBaseURL.length()))
+				.socketTimeout(httpRequest.getSocketTimeout())
+				.connectTimeout(httpRequest.getConnectTimeout());
+		for (Header header : httpRequest.getHeaders().all())
+		{
+			rerouted.header(header.getName(), header.getValue());
+		}
+		return body != null ? rerouted.body((byte[]) body.uniPart().getValue()) : rerouted;
+	}
+
+	synchronized List<ReplicaStats> getStats()
+	{
+		List<ReplicaStats> stats = new ArrayList<>();
+		for (Replica replica : this.replicas)
+		{
+			stats.add(new ReplicaStats(replica.baseURL, replica.healthy, replica.inFlight,
+					replica.latencyNanos >= 0 ? TimeUnit.NANOSECONDS.toMicros((long) replica.latencyNanos) : -1, replica.consecutiveFailures));
+		}
+		return stats;
+	}
+
+	@Override
+	public void close()
+	{
+		this.healthCheck.cancel(false);
+	}
+
+	private static boolean isBetter(Replica replica, Replica chosen)
+	{
+		if (replica.inFlight != chosen.inFlight)
+		{
+			return replica.inFlight < chosen.inFlight;
+		}
+		// A replica without a latency yet is tried first so every replica gets measured
+		return replica.latencyNanos < chosen.latencyNanos;
+	}
+
+	private void probe()
+	{
+		List<Replica> ejected = new ArrayList<>();
+		synchronized (this)
+		{
+			for (Replica replica : this.replicas)
+			{
+				if (!replica.healthy && !replica.probing)
+				{
+					replica.probing = true;
+					ejected.add(replica);
+				}
+			}
+		}
+
+		for (Replica replica : ejected)
+		{
+			try
+			{
+				this.unirestInstance.get(replica.baseURL + this.healthPath).asEmptyAsync().whenComplete((response, throwable) -> {
+					synchronized (this)
+					{
+						replica.probing = false;
+						if (throwable == null && response.getStatus() < 500)
+						{
+							replica.healthy = true;
+							replica.consecutiveFailures = 0;
+							logger.info("Re-admitted DbFlare replica {}", replica.baseURL);
+						}
+					}
+				});
+			}
+			catch (RuntimeException exception)
+			{
+				synchronized (this)
+				{
+					replica.probing = false;
+				}
+				logger.debug("Unable to probe DbFlare replica {}", replica.baseURL, exception);
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.OperationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory IMetricsRegistry used by a client that is not given one. Recording is lock-free: every operation and eid
+ * has its own histograms and counters, only the first measurement of a pair adds an entry.
+ */
+public class MetricsRegistry implements IMetricsRegistry
+{
+	private static class Metrics
+	{
+		private final String operation;
+		private final String eid;
+		private final Histogram networkLatency = new Histogram();
+		private final Histogram decodeLatency = new Histogram();
+		private final LongAdder requestBytes = new LongAdder();
+		private final LongAdder responseBytes = new LongAdder();
+		private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+		private Metrics(String operation, String eid)
+		{
+			this.operation = operation;
+			this.eid = eid;
+		}
+	}
+
+	private final ConcurrentMap<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordRequestBytes(String operation, String eid, long bytes)
+	{
+		getMetrics(operation, eid).requestBytes.add(bytes);
+	}
+
+	@Override
+	public void recordResponse(String operation, String eid, long networkNanos, long bytes)
+	{
+		Metrics metrics = getMetrics(operation, eid);
+		metrics.networkLatency.record(networkNanos);
+		metrics.responseBytes.add(bytes);
+	}
+
+	@Override
+	public void recordDecode(String operation, String eid, long decodeNanos)
+	{
+		getMetrics(operation, eid).decodeLatency.record(decodeNanos);
+	}
+
+	@Override
+	public void recordError(String operation, String eid, String error)
+	{
+		Metrics metrics = getMetrics(operation, eid);
+		LongAdder count = metrics.errors.get(error);
+		if (count == null)
+		{
+			count = metrics.errors.computeIfAbsent(error, key -> new LongAdder());
+		}
+		count.increment();
+	}
+
+	/**
+	 * @return the metrics of every operation and eid measured so far, ordered by operation and eid
+	 */
+	public List<OperationMetrics> getSnapshot()
+	{
+		List<OperationMetrics> snapshot = new ArrayList<>();
+		for (Metrics metrics : new TreeMap<>(this.metrics).values())
+		{
+			snapshot.add(getSnapshot(metrics));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @param operation
+	 * @param eid null for calls without an eid
+	 * @return the metrics of an operation and eid, null when none were measured
+	 */
+	public OperationMetrics getSnapshot(String operation, String eid)
+	{
+		Metrics metrics = this.metrics.get(getKey(operation, eid));
+		return metrics != null ? getSnapshot(metrics) : null;
+	}
+
+	private Metrics getMetrics(String operation, String eid)
+	{
+		String key = getKey(operation, eid);
+		// get first, computeIfAbsent locks the bin even when the entry exists on Java 8
+		Metrics metrics = this.metrics.get(key);
+		return metrics != null ? metrics : this.metrics.computeIfAbsent(key, item -> new Metrics(operation, eid));
+	}
+
+	private static String getKey(String operation, String eid)
+	{
+		return eid != null ? operation + "/" + eid : operation;
+	}
+
+	private static OperationMetrics getSnapshot(Metrics metrics)
+	{
+		Map<String, Long> errors = new TreeMap<>();
+		metrics.errors.forEach((error, count) -> errors.put(error, count.sum()));
+		return new OperationMetrics(metrics.operation, metrics.eid, metrics.networkLatency.getSnapshot(), metrics.decodeLatency.getSnapshot(),
+				metrics.requestBytes.sum(), metrics.responseBytes.sum(), errors);
+	}
+}
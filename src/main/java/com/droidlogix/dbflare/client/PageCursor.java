@@ -0,0 +1,260 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.Pagination;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks an entire eid page by page. While a page is being decoded and consumed, up to prefetch following pages are
+ * already requested, so the network round trip of page N+1 overlaps the processing of page N. The number of pages
+ * is derived from the total returned with the first page; without a total the cursor stops at the first short page.
+ * @param <T>
+ * @author John Pili
+ */
+public class PageCursor<T> implements Iterator<T>, AutoCloseable
+{
+	/**
+	 * Request a page. The returned IResultProcessor is expected to be in flight already
+	 */
+	interface PageFetcher
+	{
+		IResultProcessor fetch(Pagination pagination) throws Exception;
+	}
+
+	interface PageDecoder<T>
+	{
+		List<T> decode(IResultProcessor resultProcessor, Pagination pagination) throws Exception;
+	}
+
+	private static class PendingPage
+	{
+		private final Pagination pagination;
+		private final IResultProcessor resultProcessor;
+
+		private PendingPage(Pagination pagination, IResultProcessor resultProcessor)
+		{
+			this.pagination = pagination;
+			this.resultProcessor = resultProcessor;
+		}
+	}
+
+	private final PageFetcher pageFetcher;
+	private final PageDecoder<T> pageDecoder;
+	private final int pageSize;
+	private final int prefetch;
+	private final Deque<PendingPage> pending = new ArrayDeque<>();
+	private Iterator<T> rows = Collections.emptyIterator();
+	private int nextPage = 1;
+	private int lastPage = -1;
+	private long total = -1;
+	private boolean started;
+	private boolean exhausted;
+
+	PageCursor(PageFetcher pageFetcher, PageDecoder<T> pageDecoder, int pageSize, int prefetch)
+	{
+		if (pageSize <= 0)
+		{
+			throw new IllegalArgumentException("pageSize must be greater than zero");
+		}
+
+		this.pageFetcher = pageFetcher;
+		this.pageDecoder = pageDecoder;
+		this.pageSize = pageSize;
+		this.prefetch = Math.max(0, prefetch);
+	}
+
+	//region PAGES
+
+	public boolean hasNextPage() throws Exception
+	{
+		fill(1);
+		return !this.pending.isEmpty();
+	}
+
+	/**
+	 * Decode and return the next page
+	 * @return List of T
+	 * @throws Exception
+	 */
+	public List<T> nextPage() throws Exception
+	{
+		if (!hasNextPage())
+		{
+			throw new NoSuchElementException();
+		}
+
+		PendingPage page = this.pending.poll();
+		if (this.started)
+		{
+			fill(this.prefetch); // Keep the following pages in flight while this one is decoded
+		}
+
+		List<T> result = this.pageDecoder.decode(page.resultProcessor, page.pagination);
+		if (!this.started)
+		{
+			this.started = true;
+			this.total = page.pagination.getTotal();
+			if (page.pagination.hasTotal())
+			{
+				this.lastPage = (int) ((this.total + this.pageSize - 1) / this.pageSize);
+			}
+		}
+
+		if (result.size() < this.pageSize || (this.lastPage > 0 && page.pagination.getPage() >= this.lastPage))
+		{
+			close();
+		}
+		else
+		{
+			fill(this.prefetch);
+		}
+		return result;
+	}
+
+	/**
+	 * Total reported with the first page, -1 until the first page has been decoded
+	 * @return
+	 */
+	public long getTotal()
+	{
+		return total;
+	}
+
+	public int getPageSize()
+	{
+		return pageSize;
+	}
+
+	private void fill(int depth) throws Exception
+	{
+		while (!this.exhausted && this.pending.size() < depth && (this.lastPage < 0 || this.nextPage <= this.lastPage))
+		{
+			Pagination pagination = new Pagination(this.nextPage, (long) (this.nextPage - 1) * this.pageSize, this.pageSize);
+			this.pending.add(new PendingPage(pagination, this.pageFetcher.fetch(pagination)));
+			this.nextPage++;
+		}
+	}
+
+	//endregion
+
+	//region ROWS
+
+	@Override
+	public boolean hasNext()
+	{
+		try
+		{
+			while (!this.rows.hasNext())
+			{
+				if (!hasNextPage())
+				{
+					return false;
+				}
+				this.rows = nextPage().iterator();
+			}
+			return true;
+		}
+		catch (RuntimeException exception)
+		{
+			throw exception;
+		}
+		catch (Exception exception)
+		{
+			throw new RuntimeException(exception.getMessage(), exception);
+		}
+	}
+
+	@Override
+	public T next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return this.rows.next();
+	}
+
+	/**
+	 * Spliterator over the rows. Splitting hands off whole pages, in order, so parallel streams work page by page
+	 * @return
+	 */
+	public Spliterator<T> spliterator()
+	{
+		return new PageSpliterator();
+	}
+
+	public Stream<T> stream()
+	{
+		return StreamSupport.stream(spliterator(), false).onClose(this::close);
+	}
+
+	//endregion
+
+	/**
+	 * Stop requesting pages. Pages already in flight are discarded
+	 */
+	@Override
+	public void close()
+	{
+		this.exhausted = true;
+		this.pending.clear();
+	}
+
+	private class PageSpliterator implements Spliterator<T>
+	{
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action)
+		{
+			if (PageCursor.this.hasNext())
+			{
+				action.accept(PageCursor.this.next());
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action)
+		{
+			while (PageCursor.this.hasNext())
+			{
+				action.accept(PageCursor.this.next());
+			}
+		}
+
+		@Override
+		public Spliterator<T> trySplit()
+		{
+			List<T> prefix = new ArrayList<>();
+			if (rows.hasNext())
+			{
+				rows.forEachRemaining(prefix::add);
+			}
+			else if (PageCursor.this.hasNext())
+			{
+				rows.forEachRemaining(prefix::add);
+			}
+
+			if (prefix.isEmpty())
+			{
+				return null;
+			}
+			return Spliterators.spliterator(prefix, Spliterator.ORDERED);
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return Spliterator.ORDERED;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.models.Pagination;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Reads every page of an eid concurrently. The first page is read to learn the total, the remaining pages are then
+ * requested on the executor with at most parallelism pages in flight. When DbFlare returns no total the number of
+ * pages is unknown, the pages are then read one after another until a short page.
+ * @param <T>
+ */
+class PageFanOut<T>
+{
+	private static class PageResult<T>
+	{
+		private final int page;
+		private final List<T> rows;
+
+		private PageResult(int page, List<T> rows)
+		{
+			this.page = page;
+			this.rows = rows;
+		}
+	}
+
+	private final ExecutorService executorService;
+	private final PageCursor.PageFetcher pageFetcher;
+	private final PageCursor.PageDecoder<T> pageDecoder;
+	private final int pageSize;
+	private final int parallelism;
+
+	PageFanOut(ExecutorService executorService, PageCursor.PageFetcher pageFetcher, PageCursor.PageDecoder<T> pageDecoder, int pageSize, int parallelism)
+	{
+		if (pageSize <= 0)
+		{
+			throw new IllegalArgumentException("pageSize must be greater than zero");
+		}
+
+		this.executorService = executorService;
+		this.pageFetcher = pageFetcher;
+		this.pageDecoder = pageDecoder;
+		this.pageSize = pageSize;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Hand every page to the consumer on the calling thread
+	 * @param ordered when true pages are handed over in page order, otherwise as soon as they are decoded
+	 * @param pageConsumer
+	 * @throws Exception
+	 */
+	void run(boolean ordered, Consumer<List<T>> pageConsumer) throws Exception
+	{
+		Pagination first = getPagination(1);
+		List<T> firstRows = this.pageDecoder.decode(this.pageFetcher.fetch(first), first);
+		pageConsumer.accept(firstRows);
+		if (firstRows.size() < this.pageSize)
+		{
+			return;
+		}
+		if (!first.hasTotal())
+		{
+			runSequentially(pageConsumer);
+			return;
+		}
+		if (first.getTotal() <= this.pageSize)
+		{
+			return;
+		}
+
+		int lastPage = (int) (((long) first.getTotal() + this.pageSize - 1) / this.pageSize);
+		CompletionService<PageResult<T>> completionService = new ExecutorCompletionService<>(this.executorService);
+		List<Future<PageResult<T>>> futures = new ArrayList<>();
+		Map<Integer, List<T>> completed = new HashMap<>();
+		int nextPage = 2;
+		int nextToConsume = 2;
+		int inFlight = 0;
+		try
+		{
+			while (nextToConsume <= lastPage)
+			{
+				// In order mode the window also bounds the pages buffered behind a slow page
+				while (nextPage <= lastPage && inFlight < this.parallelism && (!ordered || nextPage < nextToConsume + this.parallelism))
+				{
+					futures.add(completionService.submit(getTask(nextPage++)));
+					inFlight++;
+				}
+
+				PageResult<T> result = take(completionService);
+				inFlight--;
+				if (!ordered)
+				{
+					pageConsumer.accept(result.rows);
+					nextToConsume++;
+					continue;
+				}
+
+				completed.put(result.page, result.rows);
+				while (completed.containsKey(nextToConsume))
+				{
+					pageConsumer.accept(completed.remove(nextToConsume++));
+				}
+			}
+		}
+		finally
+		{
+			for (Future<PageResult<T>> future : futures)
+			{
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Read the pages after the first, one at a time, until a short page
+	 */
+	private void runSequentially(Consumer<List<T>> pageConsumer) throws Exception
+	{
+		for (int page = 2; ; page++)
+		{
+			Pagination pagination = getPagination(page);
+			List<T> rows = this.pageDecoder.decode(this.pageFetcher.fetch(pagination), pagination);
+			if (!rows.isEmpty())
+			{
+				pageConsumer.accept(rows);
+			}
+			if (rows.size() < this.pageSize)
+			{
+				return;
+			}
+		}
+	}
+
+	List<T> collect() throws Exception
+	{
+		List<T> result = new ArrayList<>();
+		run(true, result::addAll);
+		return result;
+	}
+
+	private Callable<PageResult<T>> getTask(int page)
+	{
+		return () -> {
+			Pagination pagination = getPagination(page);
+			return new PageResult<>(page, this.pageDecoder.decode(this.pageFetcher.fetch(pagination), pagination));
+		};
+	}
+
+	private Pagination getPagination(int page)
+	{
+		return new Pagination(page, (long) (page - 1) * this.pageSize, this.pageSize);
+	}
+
+	private PageResult<T> take(CompletionService<PageResult<T>> completionService) throws Exception
+	{
+		try
+		{
+			return completionService.take().get();
+		}
+		catch (ExecutionException executionException)
+		{
+			Throwable cause = executionException.getCause();
+			if (cause instanceof Exception)
+			{
+				throw (Exception) cause;
+			}
+			throw executionException;
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package com.droidlogix.dbflare.client;
+
+import kong.unirest.HttpResponse;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedges zget reads of the configured eids. When a read has not completed after the given percentile of the recent
+ * latencies of its eid, an identical second read is sent and whichever succeeds first is returned, the other read
+ * is cancelled. A 5xx response
+ * counts as a failure, it is only returned when the other read failed too. Hedges draw from a
+ * budget that every read refills by maxHedgeRatio of a hedge, so hedging adds at most that share of reads.
+ */
+class RequestHedger
+{
+	private static final int WINDOW_SIZE = 128;
+	private static final int MINIMUM_SAMPLES = 20;
+	private static final double MAX_TOKENS = 10;
+
+	/**
+	 * Latencies of the last WINDOW_SIZE reads of an eid
+	 */
+	private static class LatencyWindow
+	{
+		private final long[] latencies = new long[WINDOW_SIZE];
+		private int next;
+		private int samples;
+
+		private synchronized void record(long latencyNanos)
+		{
+			this.latencies[this.next] = latencyNanos;
+			this.next = (this.next + 1) % WINDOW_SIZE;
+			this.samples = Math.min(this.samples + 1, WINDOW_SIZE);
+		}
+
+		/**
+		 * @return the percentile in nanoseconds, -1 until enough reads were recorded
+		 */
+		private long getPercentile(double percentile)
+		{
+			long[] sorted;
+			synchronized (this)
+			{
+				if (this.samples < MINIMUM_SAMPLES)
+				{
+					return -1;
+				}
+				sorted = Arrays.copyOf(this.latencies, this.samples);
+			}
+			Arrays.sort(sorted);
+			return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100 * sorted.length) - 1)];
+		}
+	}
+
+	private final Set<String> eids;
+	private final double percentile;
+	private final double maxHedgeRatio;
+	private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+	private double tokens = MAX_TOKENS;
+
+	/**
+	 * @param eids hedged eids
+	 * @param percentile latency percentile after which a read is hedged, e.g. 95
+	 * @param maxHedgeRatio maximum share of reads that are hedged, e.g. 0.05
+	 */
+	RequestHedger(Set<String> eids, double percentile, double maxHedgeRatio)
+	{
+		if (percentile <= 0 || percentile > 100)
+		{
+			throw new IllegalArgumentException("percentile must be greater than 0 and at most 100");
+		}
+
+		this.eids = new HashSet<>(eids);
+		this.percentile = percentile;
+		this.maxHedgeRatio = maxHedgeRatio;
+	}
+
+	boolean isHedged(String eid)
+	{
+		return eid != null && this.eids.contains(eid);
+	}
+
+	/**
+	 * @param eid
+	 * @param attempt sends the read, called a second time for the hedge
+	 * @return the first successful response, or the last failure when every read failed
+	 */
+	CompletableFuture<HttpResponse<byte[]>> execute(String eid, Supplier<CompletableFuture<HttpResponse<byte[]>>> attempt)
+	{
+		deposit();
+		LatencyWindow window = this.latencies.computeIfAbsent(eid, item -> new LatencyWindow());
+		long delay = window.getPercentile(this.percentile);
+		if (delay < 0)
+		{
+			return send(window, attempt);
+		}
+
+		CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+		AtomicInteger pending = new AtomicInteger(1);
+		CompletableFuture<HttpResponse<byte[]>> primary = send(window, attempt);
+		CompletableFuture<?>[] hedge = new CompletableFuture<?>[1];
+		primary.whenComplete((response, throwable) -> complete(result, pending, response, throwable));
+
+		ScheduledFuture<?> timer = DbFlareClient.getScheduler().schedule(() -> {
+			if (result.isDone() || !withdraw())
+			{
+				return;
+			}
+			pending.incrementAndGet();
+			CompletableFuture<HttpResponse<byte[]>> second = send(window, attempt);
+			synchronized (hedge)
+			{
+				hedge[0] = second;
+			}
+			second.whenComplete((response, throwable) -> complete(result, pending, response, throwable));
+		}, delay, TimeUnit.NANOSECONDS);
+
+		result.whenComplete((response, throwable) -> {
+			timer.cancel(false);
+			// Cancelling the loser aborts its exchange and closes its connection, see ConnectionPool.cancellable
+			primary.cancel(false);
+			synchronized (hedge)
+			{
+				if (hedge[0] != null)
+				{
+					hedge[0].cancel(false);
+				}
+			}
+		});
+		return result;
+	}
+
+	private CompletableFuture<HttpResponse<byte[]>> send(LatencyWindow window, Supplier<CompletableFuture<HttpResponse<byte[]>>> attempt)
+	{
+		long start = System.nanoTime();
+		CompletableFuture<HttpResponse<byte[]>> future;
+		try
+		{
+			future = attempt.get();
+		}
+		catch (RuntimeException exception)
+		{
+			future = new CompletableFuture<>();
+			future.completeExceptionally(exception);
+			return future;
+		}
+		future.thenAccept(response -> window.record(System.nanoTime() - start));
+		return future;
+	}
+
+	/**
+	 * The first successful response wins, a failure or a 5xx response only wins when no other read is left
+	 */
+	private static void complete(CompletableFuture<HttpResponse<byte[]>> result, AtomicInteger pending, HttpResponse<byte[]> response, Throwable throwable)
+	{
+		int left = pending.decrementAndGet();
+		if (throwable == null && response.getStatus() < 500)
+		{
+			result.complete(response);
+		}
+		else if (left == 0)
+		{
+			if (throwable != null)
+			{
+				result.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+			}
+			else
+			{
+				result.complete(response);
+			}
+		}
+	}
+
+	private synchronized void deposit()
+	{
+		this.tokens = Math.min(MAX_TOKENS, this.tokens + this.maxHedgeRatio);
+	}
+
+	private synchronized boolean withdraw()
+	{
+		if (this.tokens < 1)
+		{
+			return false;
+		}
+		this.tokens--;
+		return true;
+	}
+}
@@ -0,0 +1,116 @@
+package com.droidlogix.dbflare.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import kong.unirest.HttpResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of zget responses. Responses are kept as received and decoded again on every hit, so callers
+ * never share decoded objects. Entries are weighed by the size of their body and expire after the TTL of their eid.
+ */
+class ResultCache
+{
+	private static class Entry
+	{
+		private final HttpResponse<byte[]> response;
+		private final long expiresAt;
+
+		private Entry(HttpResponse<byte[]> response, long expiresAt)
+		{
+			this.response = response;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private final Map<String, Long> ttlMillis;
+	private final Cache<CacheKey, Entry> cache;
+	private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+	/**
+	 * @param ttlMillis TTL of the cached eids
+	 * @param maximumWeight maximum number of bytes of the cached bodies
+	 */
+	ResultCache(Map<String, Long> ttlMillis, long maximumWeight)
+	{
+		this.ttlMillis = new HashMap<>(ttlMillis);
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(maximumWeight)
+				.<CacheKey, Entry>weigher((key, entry) -> key.getRequest().length() + (entry.response.getBody() != null ? entry.response.getBody().length : 0))
+				// Entries of shorter TTLs are dropped on read, this only reclaims them
+				.expireAfterWrite(Collections.max(this.ttlMillis.values()), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+	}
+
+	boolean isCached(String eid)
+	{
+		return eid != null && this.ttlMillis.containsKey(eid);
+	}
+
+	/**
+	 * Return the cached response of the request or load it. Only successful responses are cached, and only when the
+	 * eid was not written while the response was loading
+	 * @param eid
+	 * @param url full url of the request
+	 * @param loader
+	 * @return
+	 */
+	CompletableFuture<HttpResponse<byte[]>> get(String eid, String url, Supplier<CompletableFuture<HttpResponse<byte[]>>> loader)
+	{
+		CacheKey key = new CacheKey(eid, url);
+		Entry entry = this.cache.getIfPresent(key);
+		if (entry != null)
+		{
+			if (entry.expiresAt - System.nanoTime() > 0)
+			{
+				return CompletableFuture.completedFuture(entry.response);
+			}
+			this.cache.asMap().remove(key, entry);
+		}
+
+		AtomicLong generation = getGeneration(eid);
+		long loadedGeneration = generation.get();
+		return loader.get().thenApply(response -> {
+			if (response.getStatus() >= 200 && response.getStatus() < 300 && generation.get() == loadedGeneration)
+			{
+				this.cache.put(key, new Entry(response, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.ttlMillis.get(eid))));
+				// A write may have started after the check above
+				if (generation.get() != loadedGeneration)
+				{
+					this.cache.invalidate(key);
+				}
+			}
+			return response;
+		});
+	}
+
+	void invalidate(String eid)
+	{
+		if (isCached(eid))
+		{
+			getGeneration(eid).incrementAndGet();
+			this.cache.asMap().keySet().removeIf(key -> key.getEid().equals(eid));
+		}
+	}
+
+	CacheStats getStats()
+	{
+		return this.cache.stats();
+	}
+
+	private AtomicLong getGeneration(String eid)
+	{
+		return this.generations.computeIfAbsent(eid, item -> new AtomicLong());
+	}
+}
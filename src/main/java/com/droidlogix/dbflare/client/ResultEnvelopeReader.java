@@ -0,0 +1,204 @@
+package com.droidlogix.dbflare.client;
+
+import com.droidlogix.dbflare.client.exceptions.DbFlareException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Walks a DbFlare response envelope ({"result": ..., "total": ..., "errors": [...]}) with a streaming
+ * {@link JsonReader} so that the payload can be decoded straight into the target type without building
+ * an intermediate String or JsonElement tree.
+ */
+class ResultEnvelopeReader implements Closeable
+{
+	/**
+	 * Shape of the response root, as seen by {@link #open()}
+	 */
+	enum Shape
+	{
+		EMPTY, // Empty body or JSON null
+		PRIMITIVE, // Root is a JSON primitive, reader is positioned on it
+		ARRAY, // Root is a JSON array, reader is positioned on it
+		RESULT, // Root is an envelope, reader is positioned on the value of "result"
+		OBJECT // Root is an object without "result", the object has been consumed
+	}
+
+	private final JsonReader reader;
+	private final List<String> errors = new ArrayList<>();
+	private Shape shape;
+	private Long total;
+
+	ResultEnvelopeReader(Reader in)
+	{
+		this.reader = new JsonReader(in);
+		this.reader.setLenient(true);
+	}
+
+	/**
+	 * Advance to the payload. Members of the envelope found before "result" are read on the way.
+	 * @return Shape of the root element
+	 * @throws IOException
+	 */
+	Shape open() throws IOException
+	{
+		JsonToken token;
+		try
+		{
+			token = reader.peek();
+		}
+		catch (EOFException eofException)
+		{
+			return shape = Shape.EMPTY;
+		}
+
+		switch (token)
+		{
+			case NULL:
+			{
+				reader.nextNull();
+				return shape = Shape.EMPTY;
+			}
+			case BEGIN_ARRAY:
+			{
+				return shape = Shape.ARRAY;
+			}
+			case BEGIN_OBJECT:
+			{
+				reader.beginObject();
+				while (reader.hasNext())
+				{
+					String name = reader.nextName();
+					if ("result".equals(name))
+					{
+						return shape = Shape.RESULT;
+					}
+					readMember(name);
+				}
+				reader.endObject();
+				return shape = Shape.OBJECT;
+			}
+			default:
+			{
+				return shape = Shape.PRIMITIVE;
+			}
+		}
+	}
+
+	/**
+	 * Read the rest of the envelope after the payload has been consumed and bubble any DbFlare errors.
+	 * @throws IOException
+	 * @throws DbFlareException
+	 */
+	void finish() throws IOException, DbFlareException
+	{
+		if (shape == Shape.RESULT)
+		{
+			while (reader.hasNext())
+			{
+				readMember(reader.nextName());
+			}
+			reader.endObject();
+		}
+		bubbleAnyDbFlareErrorMessages();
+	}
+
+	/**
+	 * Skip the payload, read the rest of the envelope and bubble any DbFlare errors.
+	 * @throws IOException
+	 * @throws DbFlareException
+	 */
+	void skipToEnd() throws IOException, DbFlareException
+	{
+		if (shape == Shape.RESULT || shape == Shape.ARRAY || shape == Shape.PRIMITIVE)
+		{
+			reader.skipValue();
+		}
+		finish();
+	}
+
+	void bubbleAnyDbFlareErrorMessages() throws DbFlareException
+	{
+		if (!errors.isEmpty())
+		{
+			StringBuilder sb = new StringBuilder();
+			for (String error : errors)
+			{
+				sb.append(error);
+				sb.append("\n");
+			}
+			throw new DbFlareException(sb.toString(), new ArrayList<>(errors));
+		}
+	}
+
+	JsonReader getReader()
+	{
+		return reader;
+	}
+
+	Shape getShape()
+	{
+		return shape;
+	}
+
+	boolean hasTotal()
+	{
+		return total != null;
+	}
+
+	long getTotal()
+	{
+		return total != null ? total : 0;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		reader.close();
+	}
+
+	private void readMember(String name) throws IOException
+	{
+		if ("total".equals(name) && reader.peek() == JsonToken.NUMBER)
+		{
+			total = reader.nextLong();
+		}
+		else if ("errors".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY)
+		{
+			reader.beginArray();
+			while (reader.hasNext())
+			{
+				switch (reader.peek())
+				{
+					case STRING:
+					case NUMBER:
+					{
+						errors.add(reader.nextString());
+						break;
+					}
+					case BOOLEAN:
+					{
+						errors.add(String.valueOf(reader.nextBoolean()));
+						break;
+					}
+					default:
+					{
+						reader.skipValue();
+						break;
+					}
+				}
+			}
+			reader.endArray();
+		}
+		else
+		{
+			reader.skipValue();
+		}
+	}
+}
@@ -4,491 +4,561 @@ import com.droidlogix.dbflare.client.exceptions.DbFlareException;
 import com.droidlogix.dbflare.client.models.Pagination;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import kong.unirest.HttpResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.*;
 import java.lang.reflect.Type;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 public class ResultProcessor implements IResultProcessor {
     private static final Logger logger = LoggerFactory.getLogger(ResultProcessor.class);
 
-    private Future<HttpResponse<String>> httpResponse;
+    private Future<? extends HttpResponse<?>> httpResponse;
+    private CodecRegistry codecRegistry;
+    private IMetricsRegistry metricsRegistry;
+    private String route;
+    private String eid;
 
-    public ResultProcessor(Future<HttpResponse<String>> httpResponse) {
-        this.httpResponse = httpResponse;
+    /**
+     * Decode step of a response
+     */
+    private interface Decoder<T>
+    {
+        T decode(HttpResponse<?> response) throws Exception;
     }
 
-    @Override
-    public JsonElement parse() throws Exception {
-        return getRootElement(httpResponse.get()); // This will extract the root JSON Element
+    /**
+     * @param httpResponse response with a String or byte[] body. A byte[] body is decoded as a stream
+     *                     without materializing the whole response as a String
+     */
+    public ResultProcessor(Future<? extends HttpResponse<?>> httpResponse) {
+        this(httpResponse, CodecRegistry.getDefault());
     }
 
-    @Override
-    public <T> T parse(Type typeOfT) throws Exception {
-        Gson gson = getGsonWithSerializerDeserializer();
-
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
-        {
-            return null;
-        }
-
-        if (rootJsonElement.isJsonPrimitive())
-        {
-            throw new Exception("Cannot convert JSON Primitive to Object of T");
-        }
+    public ResultProcessor(Future<? extends HttpResponse<?>> httpResponse, CodecRegistry codecRegistry) {
+        this.httpResponse = httpResponse;
+        this.codecRegistry = codecRegistry;
+    }
 
-        if (rootJsonElement.isJsonArray())
-        {
-            throw new Exception("Cannot convert JSON Array to Object of T");
-        }
+    /**
+     * @param metricsRegistry records the decode time and the DbFlareException of the call
+     * @param route route of the call, such as /zget/{eid}
+     * @param eid eid of the call, null when it has none
+     */
+    ResultProcessor(Future<? extends HttpResponse<?>> httpResponse, CodecRegistry codecRegistry, IMetricsRegistry metricsRegistry, String route, String eid) {
+        this(httpResponse, codecRegistry);
+        this.metricsRegistry = metricsRegistry;
+        this.route = route;
+        this.eid = eid;
+    }
 
-        if (rootJsonElement.isJsonObject())
-        {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
+    @Override
+    public JsonElement parse() throws Exception {
+        return decode(response -> {
+            if (!isSuccess(response))
             {
+                bubbleAnyDbFlareErrorMessages(response);
                 return null;
             }
 
-            if (root.has("result") && typeOfT != null)
-            {
-                JsonElement delta = root.get("result");
-                if(!delta.isJsonNull()) {
-                    JsonObject data = root.getAsJsonObject("result");
-                    return gson.fromJson(data, typeOfT);
-                }
-                return null;
-            }
-            else
+            try (Reader reader = openReader(response))
             {
-                return gson.fromJson(root, typeOfT);
+                return codecRegistry.getGson().fromJson(reader, JsonElement.class);
             }
-        }
-        return null;
+        });
+    }
+
+    @Override
+    public <T> T parse(Type typeOfT) throws Exception {
+        return readObject(codecRegistry.<T>getAdapter(typeOfT), "Object of T");
     }
 
     @Override
     public <T> T parse(IObjectAssembler objectAssembler) throws Exception {
-        return (T)objectAssembler.assemble(getRootElement(httpResponse.get()));
+        return (T)objectAssembler.assemble(parse());
     }
 
     @Override
     public Map<String, Object> parseToMap() throws Exception {
-        Gson gson = getGsonWithSerializerDeserializer();
+        return readObject(codecRegistry.getMapAdapter(), "Map<String, Object>");
+    }
 
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
-        {
-            return null;
-        }
+    @Override
+    public LinkedHashMap<String, Object> parseToLinkedHashMap() throws Exception {
+        return readObject(codecRegistry.getLinkedHashMapAdapter(), "Map<String, Object>");
+    }
 
-        if (rootJsonElement.isJsonPrimitive())
-        {
-            throw new Exception("Cannot convert JSON Primitive to Map<String, Object>");
-        }
+    @Override
+    public <T> List<T> parseToList(Type typeOfT) throws Exception {
+        return parseToList(typeOfT, null);
+    }
 
-        if (rootJsonElement.isJsonArray())
-        {
-            throw new Exception("Cannot convert JSON Array to Map<String, Object>");
-        }
+    @Override
+    public <T> List<T> parseToList(Type typeOfT, Pagination pagination) throws Exception {
+        return readList(codecRegistry.<T>getAdapter(typeOfT), pagination, "List<T>");
+    }
 
-        if (rootJsonElement.isJsonObject())
-        {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
+    @Override
+    public <T> List<T> parseToList(IObjectAssembler objectAssembler) throws Exception {
+        return (List<T>)objectAssembler.assemble(parse());
+    }
+
+    @Override
+    public <T> List<T> parseToList(IObjectAssembler objectAssembler, Pagination pagination) throws Exception {
+        return (List<T>)objectAssembler.assemble(parse(), pagination);
+    }
+
+    @Override
+    public List<Map<String, Object>> parseToListMap() throws Exception {
+        return parseToListMap(null);
+    }
+
+    @Override
+    public List<Map<String, Object>> parseToListMap(Pagination pagination) throws Exception {
+        return readList(codecRegistry.getMapAdapter(), pagination, "List<Map<String, Object>>");
+    }
+
+    @Override
+    public JsonPrimitive parseToJsonPrimitive() throws Exception {
+        return decode(response -> {
+            if (!isSuccess(response))
             {
+                bubbleAnyDbFlareErrorMessages(response);
                 return null;
             }
 
-            if (root.has("result"))
+            TypeAdapter<JsonElement> adapter = codecRegistry.getJsonElementAdapter();
+            try (ResultEnvelopeReader envelope = new ResultEnvelopeReader(openReader(response)))
             {
-                JsonObject data = root.getAsJsonObject("result");
-                return gson.fromJson(data, new TypeToken<Map<String, Object>>()
+                switch (envelope.open())
                 {
-                }.getType());
-            }
-            else
-            {
-                return gson.fromJson(root, new TypeToken<Map<String, Object>>()
-                {
-                }.getType());
+                    case ARRAY:
+                    {
+                        throw new Exception("Cannot convert JSON Array to JsonPrimitive");
+                    }
+                    case PRIMITIVE:
+                    {
+                        return adapter.read(envelope.getReader()).getAsJsonPrimitive();
+                    }
+                    case RESULT:
+                    {
+                        JsonElement result = adapter.read(envelope.getReader());
+                        envelope.finish();
+                        return result == null || result.isJsonNull() ? null : result.getAsJsonPrimitive();
+                    }
+                    case OBJECT:
+                    {
+                        envelope.bubbleAnyDbFlareErrorMessages();
+                        throw new Exception("Cannot convert JSON Object to JsonPrimitive");
+                    }
+                    default:
+                    {
+                        return null;
+                    }
+                }
             }
-        }
-        return null;
+        });
     }
 
     @Override
-    public LinkedHashMap<String, Object> parseToLinkedHashMap() throws Exception {
-        Gson gson = getGsonWithSerializerDeserializer();
-
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
-        {
-            return null;
-        }
-
-        if (rootJsonElement.isJsonPrimitive())
-        {
-            throw new Exception("Cannot convert JSON Primitive to Map<String, Object>");
-        }
-
-        if (rootJsonElement.isJsonArray())
-        {
-            throw new Exception("Cannot convert JSON Array to Map<String, Object>");
-        }
+    public JsonNode parseToJsonNode() throws Exception {
+        return null;
+    }
 
-        if (rootJsonElement.isJsonObject())
-        {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
+    @Override
+    public String parseToJSONString() throws Exception {
+        return decode(response -> {
+            if (!isSuccess(response))
             {
+                bubbleAnyDbFlareErrorMessages(response);
                 return null;
             }
 
-            if (root.has("result"))
+            try (JsonReader reader = newJsonReader(response))
             {
-                JsonObject data = root.getAsJsonObject("result");
-                return gson.fromJson(data, new TypeToken<Map<String, Object>>()
+                if (isEmpty(reader))
                 {
-                }.getType());
-            }
-            else
-            {
-                return gson.fromJson(root, new TypeToken<LinkedHashMap<String, Object>>()
-                {
-                }.getType());
+                    return null;
+                }
+
+                StringWriter stringWriter = new StringWriter();
+                JsonWriter writer = new JsonWriter(stringWriter);
+                writer.setLenient(true);
+                copy(reader, writer);
+                writer.flush();
+                return stringWriter.toString();
             }
-        }
-        return null;
+        });
     }
 
-    @Override
-    public <T> List<T> parseToList(Type typeOfT) throws Exception {
-        Gson gson = getGsonWithSerializerDeserializer();
+    //region STREAMING DECODE
 
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
+    private HttpResponse<?> getResponse() throws Exception
+    {
+        HttpResponse<?> response;
+        try
         {
-            return new ArrayList<>();
+            response = httpResponse.get();
         }
-
-        if (rootJsonElement.isJsonPrimitive())
+        catch (ExecutionException executionException)
         {
-            throw new Exception("Cannot convert JSON Primitive to List<T>");
+            // Callers see the failure of the request itself, e.g. a CircuitBreakerOpenException
+            if (executionException.getCause() instanceof Exception)
+            {
+                throw (Exception) executionException.getCause();
+            }
+            throw executionException;
         }
 
-        if (rootJsonElement.isJsonArray())
+        if (response == null)
         {
-            JsonArray root = rootJsonElement.getAsJsonArray();
-            return gson.fromJson(root, TypeToken.getParameterized(ArrayList.class, typeOfT).getType());
+            throw new NullPointerException("response is null");
         }
+        return response;
+    }
 
-        if (rootJsonElement.isJsonObject())
+    /**
+     * Wait for the response and decode it. The decode is timed apart from the wait, which is recorded as network
+     * time by the client. Errors in the body of a successful response are recorded as a DbFlareException error
+     */
+    private <T> T decode(Decoder<T> decoder) throws Exception
+    {
+        HttpResponse<?> response = getResponse();
+        Object event = FlightRecorderEvents.beginDecode();
+        if (metricsRegistry == null && event == null)
         {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
-            {
-                return new ArrayList<>();
-            }
-
-            if (root.has("result"))
-            {
-                if(root.get("result").isJsonArray())
-                {
-                    JsonArray data = root.getAsJsonArray("result");
-                    return gson.fromJson(data, TypeToken.getParameterized(ArrayList.class, typeOfT).getType());
-                }
-            }
+            return decoder.decode(response);
         }
-        return new ArrayList<>();
-    }
-
-    @Override
-    public <T> List<T> parseToList(Type typeOfT, Pagination pagination) throws Exception {
-        Gson gson = getGsonWithSerializerDeserializer();
 
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
+        long start = System.nanoTime();
+        T result = null;
+        try
         {
-            pagination.setTotal(0);
-            return new ArrayList<>();
+            result = decoder.decode(response);
+            return result;
         }
-
-        if (rootJsonElement.isJsonPrimitive())
+        catch (DbFlareException dbFlareException)
         {
-            throw new Exception("Cannot convert JSON Primitive to List<T>");
+            // An unsuccessful status was already recorded by the client, only errors of a successful response are left
+            if (metricsRegistry != null && isSuccess(response))
+            {
+                metricsRegistry.recordError(DbFlareClient.getOperation(route), eid, DbFlareException.class.getSimpleName());
+            }
+            throw dbFlareException;
         }
-
-        if (rootJsonElement.isJsonArray())
+        finally
         {
-            JsonArray root = rootJsonElement.getAsJsonArray();
-            if (root != null && !root.isJsonNull())
+            if (metricsRegistry != null)
             {
-                pagination.setTotal(root.size());
-                return gson.fromJson(root, TypeToken.getParameterized(ArrayList.class, typeOfT).getType());
+                metricsRegistry.recordDecode(DbFlareClient.getOperation(route), eid, System.nanoTime() - start);
             }
+            FlightRecorderEvents.commitDecode(event, route, eid, response.getBody() instanceof byte[] ? ((byte[]) response.getBody()).length : 0,
+                    result instanceof Collection ? ((Collection<?>) result).size() : result != null ? 1 : 0);
         }
+    }
 
-        if (rootJsonElement.isJsonObject())
-        {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
+    private boolean isSuccess(HttpResponse<?> response)
+    {
+        return response.getStatus() >= 200 && response.getStatus() <= 299;
+    }
+
+    /**
+     * Decode a single object. The "result" member of the envelope is decoded in place, an object without
+     * "result" is decoded as a whole.
+     */
+    private <T> T readObject(TypeAdapter<T> adapter, String targetName) throws Exception
+    {
+        return decode(response -> {
+            if (!isSuccess(response))
             {
-                pagination.setTotal(0);
-                return new ArrayList<>();
+                bubbleAnyDbFlareErrorMessages(response);
+                return null;
             }
 
-            if (root.has("result"))
+            try (ResultEnvelopeReader envelope = new ResultEnvelopeReader(openReader(response)))
             {
-                if(root.get("result").isJsonArray())
+                switch (envelope.open())
                 {
-                    JsonArray data = root.getAsJsonArray("result");
-                    if(pagination != null) {
-                        pagination.setTotal(root.getAsJsonPrimitive("total").getAsInt());
+                    case PRIMITIVE:
+                    {
+                        throw new Exception("Cannot convert JSON Primitive to " + targetName);
+                    }
+                    case ARRAY:
+                    {
+                        throw new Exception("Cannot convert JSON Array to " + targetName);
+                    }
+                    case RESULT:
+                    {
+                        T result = adapter.read(envelope.getReader());
+                        envelope.finish();
+                        return result;
+                    }
+                    case OBJECT:
+                    {
+                        envelope.bubbleAnyDbFlareErrorMessages();
+                        try (JsonReader reader = newJsonReader(response))
+                        {
+                            return adapter.read(reader);
+                        }
+                    }
+                    default:
+                    {
+                        return null;
                     }
-                    return gson.fromJson(data, TypeToken.getParameterized(ArrayList.class, typeOfT).getType());
                 }
             }
-        }
-        return new ArrayList<>();
-    }
-
-    @Override
-    public <T> List<T> parseToList(IObjectAssembler objectAssembler) throws Exception {
-        return (List<T>)objectAssembler.assemble(getRootElement(httpResponse.get()));
-    }
-
-    @Override
-    public <T> List<T> parseToList(IObjectAssembler objectAssembler, Pagination pagination) throws Exception {
-        return (List<T>)objectAssembler.assemble(getRootElement(httpResponse.get()), pagination);
-    }
-
-    @Override
-    public List<Map<String, Object>> parseToListMap() throws Exception {
-        return parseToListMap(null);
+        });
     }
 
-    @Override
-    public List<Map<String, Object>> parseToListMap(Pagination pagination) throws Exception {
-        Gson gson = getGsonWithSerializerDeserializer();
-
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
-        {
-            return new ArrayList<>();
-        }
-
-        if (rootJsonElement.isJsonPrimitive())
-        {
-            throw new Exception("Cannot convert JSON Primitive to List<Map<String, Object>>");
-        }
-
-        if (rootJsonElement.isJsonArray())
-        {
-            JsonArray data = rootJsonElement.getAsJsonArray();
-            return gson.fromJson(data, new TypeToken<List<Map<String, Object>>>()
-            {
-            }.getType());
-        }
-        else if (rootJsonElement.isJsonObject())
-        {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
+    /**
+     * Decode a list. Rows are read one at a time from either a root array or the "result" array of the envelope.
+     */
+    private <T> List<T> readList(TypeAdapter<T> adapter, Pagination pagination, String targetName) throws Exception
+    {
+        return decode(response -> {
+            if (!isSuccess(response))
             {
+                bubbleAnyDbFlareErrorMessages(response);
                 return new ArrayList<>();
             }
 
-            if (root.has("result"))
+            try (ResultEnvelopeReader envelope = new ResultEnvelopeReader(openReader(response)))
             {
-                if(root.get("result").isJsonArray())
+                switch (envelope.open())
                 {
-                    JsonArray data = root.getAsJsonArray("result");
-                    if(pagination != null) {
-                        pagination.setTotal(root.getAsJsonPrimitive("total").getAsInt());
+                    case PRIMITIVE:
+                    {
+                        throw new Exception("Cannot convert JSON Primitive to " + targetName);
                     }
-                    return gson.fromJson(data, new TypeToken<List<Map<String, Object>>>()
+                    case ARRAY:
                     {
-                    }.getType());
+                        List<T> result = readArray(envelope.getReader(), adapter);
+                        if (pagination != null)
+                        {
+                            pagination.setTotal(result.size());
+                            pagination.setHasTotal(false);
+                        }
+                        return result;
+                    }
+                    case RESULT:
+                    {
+                        JsonReader reader = envelope.getReader();
+                        if (reader.peek() != JsonToken.BEGIN_ARRAY)
+                        {
+                            envelope.skipToEnd();
+                            return new ArrayList<>();
+                        }
+
+                        List<T> result = readArray(reader, adapter);
+                        envelope.finish();
+                        if (pagination != null)
+                        {
+                            pagination.setTotal(envelope.hasTotal() ? (int) envelope.getTotal() : result.size());
+                            pagination.setHasTotal(envelope.hasTotal());
+                        }
+                        return result;
+                    }
+                    case OBJECT:
+                    {
+                        envelope.bubbleAnyDbFlareErrorMessages();
+                        return new ArrayList<>();
+                    }
+                    default:
+                    {
+                        if (pagination != null)
+                        {
+                            pagination.setTotal(0);
+                            pagination.setHasTotal(false);
+                        }
+                        return new ArrayList<>();
+                    }
                 }
             }
-        }
-        return new ArrayList<>();
+        });
     }
 
-    @Override
-    public JsonPrimitive parseToJsonPrimitive() throws Exception {
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
+    private <T> List<T> readArray(JsonReader reader, TypeAdapter<T> adapter) throws IOException
+    {
+        List<T> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext())
         {
-            return null;
+            result.add(adapter.read(reader));
         }
+        reader.endArray();
+        return result;
+    }
 
-        if (rootJsonElement.isJsonArray())
+    private Reader openReader(HttpResponse<?> response) throws IOException
+    {
+        Object body = response.getBody();
+        if (body == null)
         {
-            throw new Exception("Cannot convert JSON Array to JsonPrimitive");
+            return new StringReader("");
         }
 
-        if (rootJsonElement.isJsonPrimitive())
-        {
-            return rootJsonElement.getAsJsonPrimitive();
-        }
-        else if (rootJsonElement.isJsonObject())
+        if (body instanceof byte[])
         {
-            bubbleAnyDbFlareErrorMessages(rootJsonElement);
-            JsonObject root = rootJsonElement.getAsJsonObject();
-            if (root == null || root.isJsonNull())
+            InputStream inputStream = new ByteArrayInputStream((byte[]) body);
+            if (isGzip((byte[]) body))
             {
-                return null;
-            }
-
-            if (root.has("result"))
-            {
-                return root.getAsJsonPrimitive("result");
-            } else {
-                return root.getAsJsonPrimitive();
+                // Inflated while it is decoded, the compressed body is all that is ever held
+                inputStream = new GZIPInputStream(inputStream, 8192);
             }
+            return new InputStreamReader(inputStream, getCharset(response));
         }
-        return null;
+        return new StringReader(body.toString());
     }
 
-    @Override
-    public JsonNode parseToJsonNode() throws Exception {
-        return null;
+    /**
+     * Whether a body is gzip compressed. Unirest drops the Content-Encoding header of gzip responses, the gzip magic
+     * bytes can never start a JSON document
+     */
+    static boolean isGzip(byte[] body)
+    {
+        return body.length >= 2 && body[0] == (byte) 0x1f && body[1] == (byte) 0x8b;
     }
 
-    @Override
-    public String parseToJSONString() throws Exception {
-        JsonElement rootJsonElement = getRootElement(httpResponse.get()); // This will extract the root JSON Element
-        if (rootJsonElement == null || rootJsonElement.isJsonNull())
-        {
-            return null;
-        }
-
-        if (rootJsonElement.isJsonArray())
-        {
-            return rootJsonElement.getAsJsonArray().toString();
-        }
-
-        if (rootJsonElement.isJsonObject())
-        {
-            return rootJsonElement.getAsJsonObject().toString();
-        }
+    private JsonReader newJsonReader(HttpResponse<?> response) throws IOException
+    {
+        JsonReader reader = new JsonReader(openReader(response));
+        reader.setLenient(true);
+        return reader;
+    }
 
-        if (rootJsonElement.isJsonPrimitive())
-        {
-            return rootJsonElement.getAsJsonPrimitive().toString();
-        }
-        return null;
+    private Charset getCharset(HttpResponse<?> response)
+    {
+        return getCharset(response.getHeaders() != null ? response.getHeaders().getFirst("Content-Type") : null);
     }
 
-    private Gson getGsonWithSerializerDeserializer()
+    /**
+     * Charset declared by a Content-Type header, UTF-8 when none is declared
+     */
+    static Charset getCharset(String contentType)
     {
-        GsonBuilder gsonBuilder = new GsonBuilder().disableHtmlEscaping();
-        gsonBuilder.registerTypeAdapter(Date.class, new JsonDeserializer<Date>()
+        if (StringUtils.isNotBlank(contentType))
         {
-            public Date deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException
+            for (String item : contentType.split(";"))
             {
-                String dateString = json.getAsString();
-                DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSZ");
-                try
+                String parameter = item.trim();
+                if (StringUtils.startsWithIgnoreCase(parameter, "charset="))
                 {
-                    if (StringUtils.isBlank(dateString))
+                    try
                     {
-                        return null;
+                        return Charset.forName(StringUtils.strip(parameter.substring(8).trim(), "\""));
                     }
-                    else
+                    catch (Exception exception)
                     {
-                        return df.parse(dateString);
+                        logger.warn("Unsupported response charset {}", parameter);
                     }
                 }
-                catch (ParseException parseException)
-                {
-                    //System.out.println(parseException.getMessage());
-                    return null;
-                }
             }
-        }).registerTypeHierarchyAdapter(byte[].class, new ByteArrayToBase64TypeAdapter());
-        return gsonBuilder.create();
+        }
+        return StandardCharsets.UTF_8;
     }
 
-    private JsonElement getRootElement(HttpResponse<String> response) throws Exception
+    private boolean isEmpty(JsonReader reader) throws IOException
     {
-        Gson gson = getGsonWithSerializerDeserializer();
-
-        if (response == null)
+        try
         {
-            throw new NullPointerException("response is null");
+            reader.peek();
+            return false;
         }
-
-        if (response.getStatus() >= 200 && response.getStatus() <= 299)
+        catch (EOFException eofException)
         {
-            return gson.fromJson(response.getBody(), JsonElement.class);
+            return true;
         }
-
-        bubbleAnyDbFlareErrorMessages(gson.fromJson(response.getBody(), JsonElement.class));
-        //StringBuilder sb = new StringBuilder("Expecting response code 200; got " + response.getStatus() + "\n\n");
-        //sb.append(response.getBody());
-        //sb.append("\n\n");
-        //logger.error(sb.toString());
-        //throw new Exception(sb.toString());
-        //bubbleAnyDbFlareErrorMessages(gson.fromJson(response.getBody(), JsonElement.class));
-        return null;
     }
 
-    private void bubbleAnyDbFlareErrorMessages(JsonElement rootElement) throws DbFlareException
+    private void copy(JsonReader reader, JsonWriter writer) throws IOException
     {
-        if (rootElement != null)
+        int depth = 0;
+        do
         {
-            if (!rootElement.isJsonNull() && rootElement.isJsonObject())
+            switch (reader.peek())
             {
-                JsonObject root = rootElement.getAsJsonObject();
-                if (root.has("errors"))
+                case BEGIN_ARRAY:
                 {
-                    JsonArray jsonErrors = root.getAsJsonArray("errors").deepCopy();
-                    StringBuilder sb = new StringBuilder();
-                    List<String> errors = new ArrayList<>();
-                    for(int i = 0; i < jsonErrors.size(); i++) {
-                        if(!jsonErrors.get(i).isJsonNull()) {
-                            sb.append(jsonErrors.get(i).getAsString());
-                            sb.append("\n");
-                            errors.add(jsonErrors.get(i).getAsString());
-                        }
-                    }
-
-                    if(sb.length() > 0) {
-                        throw new DbFlareException(sb.toString(), errors);
-                    }
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                    break;
+                }
+                case END_ARRAY:
+                {
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                    break;
+                }
+                case BEGIN_OBJECT:
+                {
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                    break;
+                }
+                case END_OBJECT:
+                {
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                    break;
+                }
+                case NAME:
+                {
+                    writer.name(reader.nextName());
+                    break;
+                }
+                case STRING:
+                {
+                    writer.value(reader.nextString());
+                    break;
+                }
+                case NUMBER:
+                {
+                    writer.jsonValue(reader.nextString());
+                    break;
+                }
+                case BOOLEAN:
+                {
+                    writer.value(reader.nextBoolean());
+                    break;
+                }
+                case NULL:
+                {
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                }
+                default:
+                {
+                    return;
                 }
             }
         }
+        while (depth > 0);
     }
 
-    //CODE FROM or BASED: https://gist.github.com/orip/3635246
-    private static class ByteArrayToBase64TypeAdapter implements JsonSerializer<byte[]>, JsonDeserializer<byte[]>
-    {
-        public byte[] deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException
-        {
-            return Base64.getDecoder().decode(json.getAsString());
-        }
+    //endregion
 
-        public JsonElement serialize(byte[] src, Type typeOfSrc, JsonSerializationContext context)
+    private void bubbleAnyDbFlareErrorMessages(HttpResponse<?> response) throws Exception
+    {
+        try (ResultEnvelopeReader envelope = new ResultEnvelopeReader(openReader(response)))
         {
-            return new JsonPrimitive(Base64.getEncoder().encodeToString(src));
+            envelope.open();
+            envelope.skipToEnd();
         }
     }
 }
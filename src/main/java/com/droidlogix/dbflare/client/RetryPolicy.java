@@ -0,0 +1,161 @@
+package com.droidlogix.dbflare.client;
+
+import kong.unirest.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries requests that failed with an I/O error or a transient status (408, 429, 502, 503, 504). Attempts are spaced
+ * by exponential backoff with full jitter, a Retry-After header is honoured up to maxBackoff. Retries draw from a
+ * budget that every request refills by a fraction of a retry, so a failing server gets at most that fraction of extra
+ * load once the budget is spent instead of maxAttempts times the load.
+ */
+class RetryPolicy
+{
+	private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	private final long maxBackoffMillis;
+	private final boolean retryWrites;
+	private final double budgetRatio;
+	private final double budgetMaxTokens;
+	private double budgetTokens;
+
+	RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, boolean retryWrites, double budgetRatio, int budgetMaxTokens)
+	{
+		if (maxAttempts <= 0)
+		{
+			throw new IllegalArgumentException("maxAttempts must be greater than zero");
+		}
+
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.maxBackoffMillis = maxBackoffMillis;
+		this.retryWrites = retryWrites;
+		this.budgetRatio = budgetRatio;
+		this.budgetMaxTokens = budgetMaxTokens;
+		this.budgetTokens = budgetMaxTokens;
+	}
+
+	/**
+	 * @param attempt sends the request, called again for every retry
+	 * @param write whether the request writes, writes are only retried when retryWrites is enabled
+	 * @return the response of the last attempt
+	 */
+	CompletableFuture<HttpResponse<byte[]>> execute(Supplier<CompletableFuture<HttpResponse<byte[]>>> attempt, boolean write)
+	{
+		deposit();
+		if (this.maxAttempts == 1 || (write && !this.retryWrites))
+		{
+			return attempt.get();
+		}
+
+		CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+		send(attempt, 1, result);
+		return result;
+	}
+
+	private void send(Supplier<CompletableFuture<HttpResponse<byte[]>>> attempt, int attemptNumber, CompletableFuture<HttpResponse<byte[]>> result)
+	{
+		CompletableFuture<HttpResponse<byte[]>> future;
+		try
+		{
+			future = attempt.get();
+		}
+		catch (Exception exception)
+		{
+			result.completeExceptionally(exception);
+			return;
+		}
+
+		future.whenComplete((response, throwable) -> {
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+			boolean retryable = cause != null ? isTransient(cause) : isTransient(response.getStatus());
+			if (!retryable || attemptNumber >= this.maxAttempts || result.isDone() || !withdraw())
+			{
+				if (cause != null)
+				{
+					result.completeExceptionally(cause);
+				}
+				else
+				{
+					result.complete(response);
+				}
+				return;
+			}
+
+			long delay = getDelay(attemptNumber, response);
+			logger.debug("Retrying request in {} ms after attempt {} failed with {}", delay, attemptNumber, cause != null ? cause.toString() : response.getStatus());
+			DbFlareClient.getScheduler().schedule(() -> send(attempt, attemptNumber + 1, result), delay, TimeUnit.MILLISECONDS);
+		});
+	}
+
+	/**
+	 * Full jitter: a random delay up to the exponential backoff of the attempt, or the Retry-After of the response
+	 */
+	private long getDelay(int attemptNumber, HttpResponse<byte[]> response)
+	{
+		if (response != null)
+		{
+			String retryAfter = response.getHeaders().getFirst("Retry-After");
+			if (retryAfter != null && !retryAfter.isEmpty())
+			{
+				try
+				{
+					return Math.min(this.maxBackoffMillis, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+				}
+				catch (NumberFormatException exception)
+				{
+					// HTTP dates are not worth parsing for a capped delay, fall back to the backoff
+				}
+			}
+		}
+
+		long backoff = this.initialBackoffMillis << Math.min(attemptNumber - 1, 30);
+		return ThreadLocalRandom.current().nextLong(Math.max(1, Math.min(this.maxBackoffMillis, backoff)) + 1);
+	}
+
+	private synchronized void deposit()
+	{
+		this.budgetTokens = Math.min(this.budgetMaxTokens, this.budgetTokens + this.budgetRatio);
+	}
+
+	private synchronized boolean withdraw()
+	{
+		if (this.budgetTokens < 1)
+		{
+			logger.debug("Retry budget exhausted");
+			return false;
+		}
+		this.budgetTokens--;
+		return true;
+	}
+
+	private static boolean isTransient(int status)
+	{
+		return status == 408 || status == 429 || status == 502 || status == 503 || status == 504;
+	}
+
+	/**
+	 * Connection refused, reset or timed out. Unirest wraps them in a UnirestException
+	 */
+	private static boolean isTransient(Throwable throwable)
+	{
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause())
+		{
+			if (cause instanceof IOException)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+}
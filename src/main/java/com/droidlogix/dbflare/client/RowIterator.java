@@ -0,0 +1,350 @@
+package com.droidlogix.dbflare.client;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import kong.unirest.HttpRequest;
+import kong.unirest.HttpResponse;
+import kong.unirest.RawResponse;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the rows of a zget response that decodes one row at a time while the body is read from the socket.
+ * The response is read on an executor thread and handed over through a bounded queue, so at most bufferSize decoded
+ * rows are held in memory. The iterator must be closed when the caller stops before the last row.
+ * @param <T>
+ */
+class RowIterator<T> implements Iterator<T>, AutoCloseable
+{
+	private static final Logger logger = LoggerFactory.getLogger(RowIterator.class);
+
+	private static final Object NULL_ROW = new Object();
+	private static final Object END = new Object();
+
+	private final TypeAdapter<T> typeAdapter;
+	private final BlockingQueue<Object> rows;
+	private final CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+	private volatile boolean closed;
+	private volatile InputStream content;
+	private volatile Exception failure;
+	private volatile ScheduledFuture<?> expiry;
+	private Object next;
+
+	private RowIterator(TypeAdapter<T> typeAdapter, int bufferSize)
+	{
+		this.typeAdapter = typeAdapter;
+		this.rows = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+	}
+
+	/**
+	 * Send the request on the executor and start decoding rows into the returned iterator
+	 */
+	static <T> RowIterator<T> start(HttpRequest<?> httpRequest, TypeAdapter<T> typeAdapter, int bufferSize, Executor executor)
+	{
+		RowIterator<T> iterator = new RowIterator<>(typeAdapter, bufferSize);
+		executor.execute(() -> {
+			try
+			{
+				httpRequest.thenConsume(iterator::produce);
+			}
+			catch (Exception exception)
+			{
+				iterator.response.completeExceptionally(exception);
+				iterator.fail(exception);
+			}
+		});
+		return iterator;
+	}
+
+	/**
+	 * Decode the rows of a response whose body was received as a whole, such as one an interceptor answered with
+	 */
+	static <T> RowIterator<T> decode(CompletableFuture<HttpResponse<byte[]>> response, TypeAdapter<T> typeAdapter, int bufferSize, Executor executor)
+	{
+		RowIterator<T> iterator = new RowIterator<>(typeAdapter, bufferSize);
+		response.whenCompleteAsync((received, throwable) -> {
+			if (throwable != null)
+			{
+				Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+				iterator.response.completeExceptionally(cause);
+				iterator.fail(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+				return;
+			}
+			iterator.response.complete(received);
+			iterator.produce(received.getStatus(), received.getHeaders().getFirst("Content-Type"),
+					new ByteArrayInputStream(received.getBody() != null ? received.getBody() : new byte[0]));
+		}, executor);
+		return iterator;
+	}
+
+	/**
+	 * @return completes with the status and headers of the response once they are received, its body is the rows
+	 * read by the iterator and left null
+	 */
+	CompletableFuture<HttpResponse<byte[]>> getResponse()
+	{
+		return response;
+	}
+
+	/**
+	 * Fail the iterator with the given exception at the deadline unless it was closed before. The response is aborted
+	 * @param deadlineNanos System.nanoTime() of the deadline
+	 * @param failure
+	 */
+	void expireAt(long deadlineNanos, Exception failure)
+	{
+		this.expiry = DbFlareClient.getScheduler().schedule(() -> expire(failure), deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Fail the iterator with the given exception now unless it was closed before. The response is aborted
+	 */
+	void expire(Exception failure)
+	{
+		if (this.closed)
+		{
+			return;
+		}
+		this.failure = failure;
+		this.closed = true;
+		this.rows.clear();
+		abort();
+	}
+
+	Stream<T> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+				.onClose(this::close);
+	}
+
+	//region PRODUCER
+
+	private void produce(RawResponse rawResponse)
+	{
+		this.response.complete(new SyntheticResponse<>(rawResponse.getStatus(), rawResponse.getHeaders(), null));
+		produce(rawResponse.getStatus(), rawResponse.getContentType(), rawResponse.getContent());
+	}
+
+	private void produce(int status, String contentType, InputStream content)
+	{
+		this.content = content;
+		ResultEnvelopeReader envelope = new ResultEnvelopeReader(new InputStreamReader(content, ResultProcessor.getCharset(contentType)));
+		try
+		{
+			ResultEnvelopeReader.Shape shape = envelope.open();
+			if (status < 200 || status > 299)
+			{
+				envelope.skipToEnd();
+			}
+			else if (shape == ResultEnvelopeReader.Shape.ARRAY)
+			{
+				readRows(envelope.getReader());
+			}
+			else if (shape == ResultEnvelopeReader.Shape.RESULT && envelope.getReader().peek() == JsonToken.BEGIN_ARRAY)
+			{
+				readRows(envelope.getReader());
+				if (!this.closed)
+				{
+					envelope.finish();
+				}
+			}
+			else if (shape == ResultEnvelopeReader.Shape.PRIMITIVE)
+			{
+				throw new Exception("Cannot convert JSON Primitive to Stream<T>");
+			}
+			else
+			{
+				envelope.skipToEnd();
+			}
+			offer(END);
+		}
+		catch (Exception exception)
+		{
+			fail(exception);
+		}
+		finally
+		{
+			if (this.closed)
+			{
+				abort();
+			}
+
+			try
+			{
+				envelope.close();
+			}
+			catch (Exception exception)
+			{
+				logger.debug("Unable to close streamed response", exception);
+			}
+		}
+	}
+
+	private void readRows(JsonReader reader) throws Exception
+	{
+		reader.beginArray();
+		while (reader.hasNext() && !this.closed)
+		{
+			T row = this.typeAdapter.read(reader);
+			offer(row == null ? NULL_ROW : row);
+		}
+
+		if (!this.closed)
+		{
+			reader.endArray();
+		}
+	}
+
+	private void offer(Object item) throws InterruptedException
+	{
+		while (!this.closed && !this.rows.offer(item, 100, TimeUnit.MILLISECONDS))
+		{
+			// Wait for the consumer to make room
+		}
+	}
+
+	private void fail(Exception exception)
+	{
+		if (this.closed)
+		{
+			return;
+		}
+
+		try
+		{
+			offer(exception);
+		}
+		catch (InterruptedException interruptedException)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	//endregion
+
+	//region CONSUMER
+
+	@Override
+	public boolean hasNext()
+	{
+		if (this.next == null)
+		{
+			if (this.closed)
+			{
+				throwIfExpired();
+				return false;
+			}
+
+			try
+			{
+				// Poll so that a close from another thread also releases a waiting consumer
+				while ((this.next = this.rows.poll(100, TimeUnit.MILLISECONDS)) == null)
+				{
+					if (this.closed)
+					{
+						throwIfExpired();
+						return false;
+					}
+				}
+			}
+			catch (InterruptedException interruptedException)
+			{
+				Thread.currentThread().interrupt();
+				close();
+				throw new RuntimeException(interruptedException);
+			}
+		}
+
+		if (this.next instanceof Exception)
+		{
+			Exception exception = (Exception) this.next;
+			this.next = END;
+			close();
+			throw exception instanceof RuntimeException ? (RuntimeException) exception : new RuntimeException(exception.getMessage(), exception);
+		}
+		return this.next != END;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		Object row = this.next;
+		this.next = null;
+		return row == NULL_ROW ? null : (T) row;
+	}
+
+	private void throwIfExpired()
+	{
+		Exception failure = this.failure;
+		if (failure != null)
+		{
+			this.failure = null;
+			throw new RuntimeException(failure.getMessage(), failure);
+		}
+	}
+
+	/**
+	 * Stop reading. A response that has not been read to the end is aborted instead of drained
+	 */
+	@Override
+	public void close()
+	{
+		if (this.closed)
+		{
+			return;
+		}
+
+		this.closed = true;
+		this.rows.clear();
+		if (this.next != END)
+		{
+			abort();
+		}
+		if (this.expiry != null)
+		{
+			this.expiry.cancel(false);
+		}
+	}
+
+	private void abort()
+	{
+		if (this.content instanceof ConnectionReleaseTrigger)
+		{
+			try
+			{
+				((ConnectionReleaseTrigger) this.content).abortConnection();
+			}
+			catch (Exception exception)
+			{
+				logger.debug("Unable to abort streamed response", exception);
+			}
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,156 @@
+package com.droidlogix.dbflare.client;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cold Publisher of the rows of a zget response. Every subscription sends its own request on the first demand and
+ * emits rows only as they are requested. Rows are read through a RowIterator, so when the subscriber is slow the
+ * bounded read-ahead fills up and reading from the socket pauses instead of buffering the body.
+ * @param <T>
+ */
+class RowPublisher<T> implements Publisher<T>
+{
+	/**
+	 * Send the request of a subscription
+	 */
+	interface RowSource<T>
+	{
+		RowIterator<T> open() throws Exception;
+	}
+
+	private final RowSource<T> rowSource;
+	private final Executor executor;
+
+	RowPublisher(RowSource<T> rowSource, Executor executor)
+	{
+		this.rowSource = rowSource;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> subscriber)
+	{
+		if (subscriber == null)
+		{
+			throw new NullPointerException("subscriber is null");
+		}
+		subscriber.onSubscribe(new RowSubscription(subscriber));
+	}
+
+	private class RowSubscription implements Subscription
+	{
+		private final Subscriber<? super T> subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger pending = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile RowIterator<T> rows;
+		private volatile Throwable error;
+		private boolean done;
+
+		private RowSubscription(Subscriber<? super T> subscriber)
+		{
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n)
+		{
+			if (n <= 0)
+			{
+				// Signalled by the emit loop, an onNext may be running on another thread
+				if (this.error == null)
+				{
+					this.error = new IllegalArgumentException("Requested number of rows must be positive, got " + n);
+				}
+				drain();
+				return;
+			}
+
+			long current;
+			do
+			{
+				current = this.requested.get();
+			}
+			while (current != Long.MAX_VALUE && !this.requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+			drain();
+		}
+
+		@Override
+		public void cancel()
+		{
+			this.cancelled = true;
+			RowIterator<T> iterator = this.rows;
+			if (iterator != null)
+			{
+				iterator.close();
+			}
+		}
+
+		private void drain()
+		{
+			if (this.pending.getAndIncrement() == 0)
+			{
+				executor.execute(this::emit);
+			}
+		}
+
+		/**
+		 * Emit up to the requested number of rows. Only one emit runs at a time, so signals are serialized
+		 */
+		private void emit()
+		{
+			int missed = 1;
+			do
+			{
+				if (this.error != null && !this.cancelled && !this.done)
+				{
+					this.done = true;
+					cancel();
+					this.subscriber.onError(this.error);
+				}
+
+				long demand = this.requested.get();
+				long emitted = 0;
+				while (emitted != demand && !this.cancelled && !this.done && this.error == null)
+				{
+					try
+					{
+						if (this.rows == null)
+						{
+							this.rows = rowSource.open();
+						}
+
+						if (!this.rows.hasNext())
+						{
+							this.done = true;
+							this.subscriber.onComplete();
+							break;
+						}
+						this.subscriber.onNext(this.rows.next());
+						emitted++;
+					}
+					catch (Exception exception)
+					{
+						this.done = true;
+						cancel();
+						this.subscriber.onError(exception.getClass() == RuntimeException.class && exception.getCause() != null ? exception.getCause() : exception);
+						break;
+					}
+				}
+
+				if (emitted > 0 && demand != Long.MAX_VALUE)
+				{
+					this.requested.addAndGet(-emitted);
+				}
+				missed = this.pending.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+	}
+}
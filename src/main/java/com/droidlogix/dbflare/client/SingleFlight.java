@@ -0,0 +1,53 @@
+package com.droidlogix.dbflare.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent calls. While a call for a key is in flight every other call for the same key waits
+ * on it instead of starting its own. The key is forgotten as soon as the call completes, so nothing is cached.
+ * @param <R>
+ */
+class SingleFlight<R>
+{
+	private final ConcurrentMap<String, CompletableFuture<R>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * @param key identity of the call
+	 * @param call started only when no call for the key is in flight
+	 * @return a future of its own for every caller, so cancelling it does not affect the other callers
+	 */
+	CompletableFuture<R> execute(String key, Supplier<CompletableFuture<R>> call)
+	{
+		CompletableFuture<R> created = new CompletableFuture<>();
+		CompletableFuture<R> existing = this.inFlight.putIfAbsent(key, created);
+		if (existing != null)
+		{
+			return existing.thenApply(Function.identity());
+		}
+
+		try
+		{
+			call.get().whenComplete((result, throwable) -> {
+				this.inFlight.remove(key, created);
+				if (throwable != null)
+				{
+					created.completeExceptionally(throwable);
+				}
+				else
+				{
+					created.complete(result);
+				}
+			});
+		}
+		catch (RuntimeException exception)
+		{
+			this.inFlight.remove(key, created);
+			created.completeExceptionally(exception);
+		}
+		return created.thenApply(Function.identity());
+	}
+}
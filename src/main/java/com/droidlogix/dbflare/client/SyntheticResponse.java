@@ -0,0 +1,127 @@
+package com.droidlogix.dbflare.client;
+
+import kong.unirest.Cookies;
+import kong.unirest.Headers;
+import kong.unirest.HttpResponse;
+import kong.unirest.UnirestParsingException;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Response built by an interceptor instead of sending the request, or the status and headers of a streamed response
+ * @param <T>
+ */
+class SyntheticResponse<T> implements HttpResponse<T>
+{
+	private final int status;
+	private final Headers headers;
+	private final T body;
+
+	SyntheticResponse(int status, T body)
+	{
+		this(status, new Headers(), body);
+		this.headers.add("Content-Type", "application/json;charset=UTF-8");
+	}
+
+	SyntheticResponse(int status, Headers headers, T body)
+	{
+		this.status = status;
+		this.headers = headers;
+		this.body = body;
+	}
+
+	@Override
+	public int getStatus()
+	{
+		return status;
+	}
+
+	@Override
+	public String getStatusText()
+	{
+		return "";
+	}
+
+	@Override
+	public Headers getHeaders()
+	{
+		return headers;
+	}
+
+	@Override
+	public T getBody()
+	{
+		return body;
+	}
+
+	@Override
+	public Optional<UnirestParsingException> getParsingError()
+	{
+		return Optional.empty();
+	}
+
+	@Override
+	public <V> V mapBody(Function<T, V> function)
+	{
+		return function.apply(body);
+	}
+
+	@Override
+	public <V> HttpResponse<V> map(Function<T, V> function)
+	{
+		return new SyntheticResponse<>(status, headers, function.apply(body));
+	}
+
+	@Override
+	public HttpResponse<T> ifSuccess(Consumer<HttpResponse<T>> consumer)
+	{
+		if (isSuccess())
+		{
+			consumer.accept(this);
+		}
+		return this;
+	}
+
+	@Override
+	public HttpResponse<T> ifFailure(Consumer<HttpResponse<T>> consumer)
+	{
+		if (!isSuccess())
+		{
+			consumer.accept(this);
+		}
+		return this;
+	}
+
+	@Override
+	public <E> HttpResponse<T> ifFailure(Class<? extends E> errorClass, Consumer<HttpResponse<E>> consumer)
+	{
+		if (!isSuccess())
+		{
+			consumer.accept(new SyntheticResponse<>(status, headers, mapError(errorClass)));
+		}
+		return this;
+	}
+
+	@Override
+	public boolean isSuccess()
+	{
+		return status >= 200 && status < 300;
+	}
+
+	/**
+	 * Synthetic error bodies are not mapped
+	 */
+	@Override
+	public <E> E mapError(Class<? extends E> errorClass)
+	{
+		return null;
+	}
+
+	@Override
+	public Cookies getCookies()
+	{
+		return new Cookies();
+	}
+}
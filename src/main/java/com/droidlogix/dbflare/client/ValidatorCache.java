@@ -0,0 +1,194 @@
+package com.droidlogix.dbflare.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import kong.unirest.Header;
+import kong.unirest.HttpRequest;
+import kong.unirest.HttpResponse;
+import kong.unirest.UnirestInstance;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Last response of conditional zget reads with its ETag and Last-Modified validators. The next read of the same
+ * request is sent with If-None-Match/If-Modified-Since and a 304 is answered with the kept response, so an unchanged
+ * body is neither transferred nor copied again. A Cache-Control max-age lets the kept response be reused without
+ * asking the server at all. A 304 that finds no kept response, because it was invalidated or evicted while the
+ * request was in flight, is answered by sending the request again without validators. A 304 never keeps a response
+ * again once it was invalidated.
+ */
+class ValidatorCache
+{
+	private static class Validated
+	{
+		private final HttpResponse<byte[]> response;
+		private final String eTag;
+		private final String lastModified;
+		private final long freshUntil;
+
+		private Validated(HttpResponse<byte[]> response, String eTag, String lastModified, long freshUntil)
+		{
+			this.response = response;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+			this.freshUntil = freshUntil;
+		}
+	}
+
+	private final Set<String> eids;
+	private final Cache<CacheKey, Validated> cache;
+	private final UnirestInstance unirestInstance;
+
+	ValidatorCache(Set<String> eids, long maximumWeight, UnirestInstance unirestInstance)
+	{
+		this.eids = new HashSet<>(eids);
+		this.unirestInstance = unirestInstance;
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(maximumWeight)
+				.<CacheKey, Validated>weigher((key, validated) -> key.getRequest().length() + (validated.response.getBody() != null ? validated.response.getBody().length : 0))
+				.build();
+	}
+
+	boolean isConditional(String eid)
+	{
+		return eid != null && this.eids.contains(eid);
+	}
+
+	CompletableFuture<HttpResponse<byte[]>> get(String eid, HttpRequest<?> httpRequest, Function<HttpRequest<?>, CompletableFuture<HttpResponse<byte[]>>> sender)
+	{
+		CacheKey key = new CacheKey(eid, httpRequest.getUrl());
+		Validated validated = this.cache.getIfPresent(key);
+		if (validated != null)
+		{
+			if (validated.freshUntil - System.nanoTime() > 0)
+			{
+				return CompletableFuture.completedFuture(validated.response);
+			}
+			if (validated.eTag != null)
+			{
+				httpRequest.header("If-None-Match", validated.eTag);
+			}
+			if (validated.lastModified != null)
+			{
+				httpRequest.header("If-Modified-Since", validated.lastModified);
+			}
+		}
+
+		return sender.apply(httpRequest).thenCompose(response -> {
+			// A coalesced read may get the 304 of a request that was sent with validators it did not have itself
+			Validated kept = validated != null ? validated : this.cache.getIfPresent(key);
+			if (response.getStatus() == 304 && kept == null)
+			{
+				// Nothing is left to answer the 304 with, ask for the body again
+				return sender.apply(withoutValidators(httpRequest)).thenApply(resent -> keep(key, resent, null));
+			}
+			return CompletableFuture.completedFuture(keep(key, response, kept));
+		});
+	}
+
+	/**
+	 * Keep a successful response, or answer a 304 with the kept one
+	 */
+	private HttpResponse<byte[]> keep(CacheKey key, HttpResponse<byte[]> response, Validated kept)
+	{
+		if (response.getStatus() == 304 && kept != null)
+		{
+			// A 304 may carry updated validators and freshness, the body stays the kept one
+			store(key, kept.response, response, kept);
+			return kept.response;
+		}
+		if (response.getStatus() >= 200 && response.getStatus() < 300)
+		{
+			store(key, response, response, null);
+		}
+		return response;
+	}
+
+	/**
+	 * Copy of a request without the If-None-Match and If-Modified-Since headers
+	 */
+	private HttpRequest<?> withoutValidators(HttpRequest<?> httpRequest)
+	{
+		HttpRequest<?> copy = this.unirestInstance.request(httpRequest.getHttpMethod().name(), httpRequest.getUrl());
+		for (Header header : httpRequest.getHeaders().all())
+		{
+			if (!header.getName().equalsIgnoreCase("If-None-Match") && !header.getName().equalsIgnoreCase("If-Modified-Since"))
+			{
+				copy.header(header.getName(), header.getValue());
+			}
+		}
+		return copy;
+	}
+
+	void invalidate(String eid)
+	{
+		if (isConditional(eid))
+		{
+			this.cache.asMap().keySet().removeIf(key -> key.getEid().equals(eid));
+		}
+	}
+
+	private void store(CacheKey key, HttpResponse<byte[]> body, HttpResponse<byte[]> response, Validated previous)
+	{
+		String cacheControl = response.getHeaders().getFirst("Cache-Control");
+		if (cacheControl != null && cacheControl.toLowerCase().contains("no-store"))
+		{
+			this.cache.invalidate(key);
+			return;
+		}
+
+		String eTag = getHeader(response, "ETag", previous != null ? previous.eTag : null);
+		String lastModified = getHeader(response, "Last-Modified", previous != null ? previous.lastModified : null);
+		if (eTag == null && lastModified == null)
+		{
+			this.cache.invalidate(key);
+			return;
+		}
+		Validated validated = new Validated(body, eTag, lastModified, System.nanoTime() + TimeUnit.SECONDS.toNanos(getMaxAge(cacheControl)));
+		if (previous != null)
+		{
+			// A write may have dropped the kept response while the 304 was in flight, it must not be kept again
+			this.cache.asMap().replace(key, previous, validated);
+			return;
+		}
+		this.cache.put(key, validated);
+	}
+
+	private static String getHeader(HttpResponse<byte[]> response, String name, String defaultValue)
+	{
+		String value = response.getHeaders().getFirst(name);
+		return value != null && !value.isEmpty() ? value : defaultValue;
+	}
+
+	/**
+	 * @return seconds the response may be reused without revalidation, zero unless Cache-Control has a max-age
+	 */
+	private static long getMaxAge(String cacheControl)
+	{
+		if (cacheControl == null || cacheControl.toLowerCase().contains("no-cache"))
+		{
+			return 0;
+		}
+
+		for (String directive : cacheControl.split(","))
+		{
+			String[] pair = directive.trim().split("=", 2);
+			if (pair[0].equalsIgnoreCase("max-age") && pair.length == 2)
+			{
+				try
+				{
+					return Math.max(0, Long.parseLong(pair[1].trim()));
+				}
+				catch (NumberFormatException exception)
+				{
+					return 0;
+				}
+			}
+		}
+		return 0;
+	}
+}
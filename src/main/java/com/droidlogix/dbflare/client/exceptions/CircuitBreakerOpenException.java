@@ -0,0 +1,17 @@
+package com.droidlogix.dbflare.client.exceptions;
+
+/**
+ * Thrown without sending the request while the circuit breaker of its endpoint is open
+ */
+public class CircuitBreakerOpenException extends Exception {
+    private final String endpoint;
+
+    public CircuitBreakerOpenException(String endpoint) {
+        super("Circuit breaker of " + endpoint + " is open");
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,18 @@
+package com.droidlogix.dbflare.client.exceptions;
+
+/**
+ * Thrown without sending the request when the client already has as many requests in flight as its concurrency limit
+ * allows and no queued slot became free in time
+ */
+public class ConcurrencyLimitExceededException extends Exception {
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(int limit, String reason) {
+        super("Concurrency limit of " + limit + " requests exceeded, " + reason);
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
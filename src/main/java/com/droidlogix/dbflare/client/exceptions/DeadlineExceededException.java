@@ -0,0 +1,18 @@
+package com.droidlogix.dbflare.client.exceptions;
+
+/**
+ * Thrown when a call made with CallOptions has not completed by its deadline. The request still in flight, if any,
+ * is aborted
+ */
+public class DeadlineExceededException extends Exception {
+    private final String endpoint;
+
+    public DeadlineExceededException(String endpoint) {
+        super("Deadline exceeded before " + endpoint + " completed");
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,57 @@
+package com.droidlogix.dbflare.client.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a chunked bulk write. Chunks are in input order
+ * @param <T>
+ */
+public class BulkResult<T>
+{
+	private List<ChunkResult<T>> chunks;
+
+	public BulkResult(List<ChunkResult<T>> chunks)
+	{
+		this.chunks = chunks;
+	}
+
+	public List<ChunkResult<T>> getChunks()
+	{
+		return chunks;
+	}
+
+	/**
+	 * @return records of the successful chunks in input order
+	 */
+	public List<T> getResults()
+	{
+		List<T> results = new ArrayList<>();
+		for (ChunkResult<T> chunk : chunks)
+		{
+			if (chunk.isSuccessful() && chunk.getResults() != null)
+			{
+				results.addAll(chunk.getResults());
+			}
+		}
+		return results;
+	}
+
+	public List<ChunkResult<T>> getFailures()
+	{
+		List<ChunkResult<T>> failures = new ArrayList<>();
+		for (ChunkResult<T> chunk : chunks)
+		{
+			if (!chunk.isSuccessful())
+			{
+				failures.add(chunk);
+			}
+		}
+		return failures;
+	}
+
+	public boolean isSuccessful()
+	{
+		return getFailures().isEmpty();
+	}
+}
@@ -0,0 +1,55 @@
+package com.droidlogix.dbflare.client.models;
+
+import java.util.List;
+
+/**
+ * Outcome of one chunk of a bulk write
+ * @param <T>
+ */
+public class ChunkResult<T>
+{
+	private int index; // Position of the chunk in the bulk write
+	private int fromRow; // First input row of the chunk, inclusive
+	private int toRow; // Last input row of the chunk, exclusive
+	private List<T> results; // Records returned for the chunk, null when it failed
+	private Exception failure; // Cause of the failure, null when it succeeded
+
+	public ChunkResult(int index, int fromRow, int toRow, List<T> results, Exception failure)
+	{
+		this.index = index;
+		this.fromRow = fromRow;
+		this.toRow = toRow;
+		this.results = results;
+		this.failure = failure;
+	}
+
+	public int getIndex()
+	{
+		return index;
+	}
+
+	public int getFromRow()
+	{
+		return fromRow;
+	}
+
+	public int getToRow()
+	{
+		return toRow;
+	}
+
+	public List<T> getResults()
+	{
+		return results;
+	}
+
+	public Exception getFailure()
+	{
+		return failure;
+	}
+
+	public boolean isSuccessful()
+	{
+		return failure == null;
+	}
+}
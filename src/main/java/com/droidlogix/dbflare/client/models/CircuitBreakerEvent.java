@@ -0,0 +1,67 @@
+package com.droidlogix.dbflare.client.models;
+
+/**
+ * State change of the circuit breaker of an endpoint
+ */
+public class CircuitBreakerEvent
+{
+	public enum State
+	{
+		CLOSED, // Requests are sent and their outcome is recorded
+		OPEN, // Requests fail fast without being sent
+		HALF_OPEN // A few probe requests are sent to decide whether to close again
+	}
+
+	private String endpoint; // Path of the endpoint such as /zget/jobsheets
+	private State fromState;
+	private State toState;
+	private float failureRate; // Percentage of failed calls of the window when the state changed
+	private float slowCallRate; // Percentage of slow calls of the window when the state changed
+	private long timestamp;
+
+	public CircuitBreakerEvent(String endpoint, State fromState, State toState, float failureRate, float slowCallRate, long timestamp)
+	{
+		this.endpoint = endpoint;
+		this.fromState = fromState;
+		this.toState = toState;
+		this.failureRate = failureRate;
+		this.slowCallRate = slowCallRate;
+		this.timestamp = timestamp;
+	}
+
+	public String getEndpoint()
+	{
+		return endpoint;
+	}
+
+	public State getFromState()
+	{
+		return fromState;
+	}
+
+	public State getToState()
+	{
+		return toState;
+	}
+
+	public float getFailureRate()
+	{
+		return failureRate;
+	}
+
+	public float getSlowCallRate()
+	{
+		return slowCallRate;
+	}
+
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CircuitBreakerEvent{endpoint=" + endpoint + ", fromState=" + fromState + ", toState=" + toState + ", failureRate=" + failureRate + ", slowCallRate=" + slowCallRate + ", timestamp=" + timestamp + "}";
+	}
+}
@@ -0,0 +1,46 @@
+package com.droidlogix.dbflare.client.models;
+
+/**
+ * Snapshot of the body bytes sent and received by a client, before and after gzip
+ */
+public class CompressionStats
+{
+	private long requestBytes; // Serialized request bodies
+	private long requestWireBytes; // Request bodies as sent, after gzip
+	private long responseBytes; // Response bodies after decompression
+	private long responseWireBytes; // Response bodies as received
+
+	public CompressionStats(long requestBytes, long requestWireBytes, long responseBytes, long responseWireBytes)
+	{
+		this.requestBytes = requestBytes;
+		this.requestWireBytes = requestWireBytes;
+		this.responseBytes = responseBytes;
+		this.responseWireBytes = responseWireBytes;
+	}
+
+	public long getRequestBytes()
+	{
+		return requestBytes;
+	}
+
+	public long getRequestWireBytes()
+	{
+		return requestWireBytes;
+	}
+
+	public long getResponseBytes()
+	{
+		return responseBytes;
+	}
+
+	public long getResponseWireBytes()
+	{
+		return responseWireBytes;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CompressionStats{requestBytes=" + requestBytes + ", requestWireBytes=" + requestWireBytes + ", responseBytes=" + responseBytes + ", responseWireBytes=" + responseWireBytes + "}";
+	}
+}
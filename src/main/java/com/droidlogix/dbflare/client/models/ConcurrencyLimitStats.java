@@ -0,0 +1,53 @@
+package com.droidlogix.dbflare.client.models;
+
+/**
+ * Snapshot of the adaptive concurrency limit of a client
+ */
+public class ConcurrencyLimitStats
+{
+	private int limit; // Requests currently allowed in flight
+	private int inFlight; // Requests currently in flight
+	private int queued; // Requests waiting for a slot
+	private long rejected; // Requests rejected since the client was built
+	private long minLatencyMicros; // Lowest recent latency the limit is measured against, -1 until known
+
+	public ConcurrencyLimitStats(int limit, int inFlight, int queued, long rejected, long minLatencyMicros)
+	{
+		this.limit = limit;
+		this.inFlight = inFlight;
+		this.queued = queued;
+		this.rejected = rejected;
+		this.minLatencyMicros = minLatencyMicros;
+	}
+
+	public int getLimit()
+	{
+		return limit;
+	}
+
+	public int getInFlight()
+	{
+		return inFlight;
+	}
+
+	public int getQueued()
+	{
+		return queued;
+	}
+
+	public long getRejected()
+	{
+		return rejected;
+	}
+
+	public long getMinLatencyMicros()
+	{
+		return minLatencyMicros;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ConcurrencyLimitStats{limit=" + limit + ", inFlight=" + inFlight + ", queued=" + queued + ", rejected=" + rejected + ", minLatencyMicros=" + minLatencyMicros + "}";
+	}
+}
@@ -0,0 +1,46 @@
+package com.droidlogix.dbflare.client.models;
+
+/**
+ * Snapshot of the connections of a client connection pool
+ */
+public class ConnectionPoolStats
+{
+	private int leased; // Connections currently executing a request
+	private int pending; // Requests waiting for a connection
+	private int available; // Idle connections kept alive for reuse
+	private int max; // Maximum number of connections of the pool
+
+	public ConnectionPoolStats(int leased, int pending, int available, int max)
+	{
+		this.leased = leased;
+		this.pending = pending;
+		this.available = available;
+		this.max = max;
+	}
+
+	public int getLeased()
+	{
+		return leased;
+	}
+
+	public int getPending()
+	{
+		return pending;
+	}
+
+	public int getAvailable()
+	{
+		return available;
+	}
+
+	public int getMax()
+	{
+		return max;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ConnectionPoolStats{leased=" + leased + ", pending=" + pending + ", available=" + available + ", max=" + max + "}";
+	}
+}
@@ -0,0 +1,78 @@
+package com.droidlogix.dbflare.client.models;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of a latency histogram with power of two buckets: bucket i counts the latencies of at least 2^(i-1) and
+ * less than 2^i microseconds, the last bucket also counts everything longer. Percentiles are the upper bound of their
+ * bucket, so they are at most twice the actual latency
+ */
+public class LatencyHistogram
+{
+	public static final int BUCKETS = 32;
+
+	private long[] bucketCounts; // Latencies counted by every bucket
+	private long count; // Latencies recorded
+	private long totalMicros; // Sum of the latencies recorded
+	private long maxMicros; // Longest latency recorded
+
+	public LatencyHistogram(long[] bucketCounts, long totalMicros, long maxMicros)
+	{
+		this.bucketCounts = bucketCounts;
+		this.count = Arrays.stream(bucketCounts).sum();
+		this.totalMicros = totalMicros;
+		this.maxMicros = maxMicros;
+	}
+
+	public long[] getBucketCounts()
+	{
+		return bucketCounts.clone();
+	}
+
+	public long getCount()
+	{
+		return count;
+	}
+
+	public long getTotalMicros()
+	{
+		return totalMicros;
+	}
+
+	public long getMaxMicros()
+	{
+		return maxMicros;
+	}
+
+	public double getMeanMicros()
+	{
+		return count > 0 ? (double) totalMicros / count : 0;
+	}
+
+	/**
+	 * @param percentile e.g. 99
+	 * @return upper bound of the bucket of the percentile in microseconds, never more than the longest latency, 0 when
+	 * nothing was recorded
+	 */
+	public long getPercentileMicros(double percentile)
+	{
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		long seen = 0;
+		for (int i = 0; i < bucketCounts.length; i++)
+		{
+			seen += bucketCounts[i];
+			if (seen >= rank && seen > 0)
+			{
+				return Math.min(maxMicros, 1L << i);
+			}
+		}
+		return maxMicros;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "LatencyHistogram{count=" + count + ", meanMicros=" + (long) getMeanMicros() + ", p50Micros=" + getPercentileMicros(50)
+				+ ", p99Micros=" + getPercentileMicros(99) + ", maxMicros=" + maxMicros + "}";
+	}
+}
@@ -0,0 +1,71 @@
+package com.droidlogix.dbflare.client.models;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of an operation, such as zget, and eid
+ */
+public class OperationMetrics
+{
+	private String operation; // Operation of the calls, such as zget or zinsert
+	private String eid; // Eid of the calls, null for calls without one
+	private LatencyHistogram networkLatency; // Time from a call to its whole response, including retries and waits
+	private LatencyHistogram decodeLatency; // Time spent decoding the responses
+	private long requestBytes; // Request body bytes sent, after compression
+	private long responseBytes; // Response body bytes received, before decompression
+	private Map<String, Long> errors; // Failed calls by status such as HTTP 503, or by exception such as DbFlareException
+
+	public OperationMetrics(String operation, String eid, LatencyHistogram networkLatency, LatencyHistogram decodeLatency, long requestBytes,
+			long responseBytes, Map<String, Long> errors)
+	{
+		this.operation = operation;
+		this.eid = eid;
+		this.networkLatency = networkLatency;
+		this.decodeLatency = decodeLatency;
+		this.requestBytes = requestBytes;
+		this.responseBytes = responseBytes;
+		this.errors = errors;
+	}
+
+	public String getOperation()
+	{
+		return operation;
+	}
+
+	public String getEid()
+	{
+		return eid;
+	}
+
+	public LatencyHistogram getNetworkLatency()
+	{
+		return networkLatency;
+	}
+
+	public LatencyHistogram getDecodeLatency()
+	{
+		return decodeLatency;
+	}
+
+	public long getRequestBytes()
+	{
+		return requestBytes;
+	}
+
+	public long getResponseBytes()
+	{
+		return responseBytes;
+	}
+
+	public Map<String, Long> getErrors()
+	{
+		return errors;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "OperationMetrics{operation=" + operation + ", eid=" + eid + ", networkLatency=" + networkLatency + ", decodeLatency=" + decodeLatency
+				+ ", requestBytes=" + requestBytes + ", responseBytes=" + responseBytes + ", errors=" + errors + "}";
+	}
+}
@@ -9,6 +9,7 @@ public class Pagination
 	private long skip; // SKip record indicator
 	private int pageSize; // Number of records to return as a list
 	private int total; // Total is indicator how much total record it has in the database
+	private boolean hasTotal; // Whether the total was returned by DbFlare rather than counted from the rows received
 
 	public Pagination(int page, long skip, int pageSize)
 	{
@@ -23,6 +24,7 @@ public class Pagination
 		this.skip = skip;
 		this.pageSize = pageSize;
 		this.total = total;
+		this.hasTotal = true;
 	}
 
 	public int getPage()
@@ -64,4 +66,14 @@ public class Pagination
 	{
 		this.total = total;
 	}
+
+	public boolean hasTotal()
+	{
+		return hasTotal;
+	}
+
+	public void setHasTotal(boolean hasTotal)
+	{
+		this.hasTotal = hasTotal;
+	}
 }
@@ -0,0 +1,53 @@
+package com.droidlogix.dbflare.client.models;
+
+/**
+ * Snapshot of a DbFlare replica of a load balanced client
+ */
+public class ReplicaStats
+{
+	private String baseURL;
+	private boolean healthy; // Unhealthy replicas get no requests until a health probe succeeds
+	private int inFlight; // Requests currently sent to the replica
+	private long latencyMicros; // Moving average of the latency of the replica, -1 until known
+	private int consecutiveFailures;
+
+	public ReplicaStats(String baseURL, boolean healthy, int inFlight, long latencyMicros, int consecutiveFailures)
+	{
+		this.baseURL = baseURL;
+		this.healthy = healthy;
+		this.inFlight = inFlight;
+		this.latencyMicros = latencyMicros;
+		this.consecutiveFailures = consecutiveFailures;
+	}
+
+	public String getBaseURL()
+	{
+		return baseURL;
+	}
+
+	public boolean isHealthy()
+	{
+		return healthy;
+	}
+
+	public int getInFlight()
+	{
+		return inFlight;
+	}
+
+	public long getLatencyMicros()
+	{
+		return latencyMicros;
+	}
+
+	public int getConsecutiveFailures()
+	{
+		return consecutiveFailures;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ReplicaStats{baseURL=" + baseURL + ", healthy=" + healthy + ", inFlight=" + inFlight + ", latencyMicros=" + latencyMicros + ", consecutiveFailures=" + consecutiveFailures + "}";
+	}
+}
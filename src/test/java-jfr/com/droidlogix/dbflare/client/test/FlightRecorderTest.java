@@ -0,0 +1,69 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightRecorderTest {
+    private static StubServer stubServer;
+    private static DbFlareClient dbFlareClient;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        stubServer = new StubServer()
+                .handle("/zget/jobsheets", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[{\"idJobsheet\":1,\"documentReference\":\"JS-1\"},{\"idJobsheet\":2,\"documentReference\":\"JS-2\"}],\"total\":42}"));
+
+        dbFlareClient = new DbFlareClient.Config()
+                .objectMapper(new ObjectMapper())
+                .baseUrl(stubServer.getBaseURL())
+                .build();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        dbFlareClient.close();
+        stubServer.close();
+    }
+
+    @Test
+    public void requestsAndDecodesAreRecordedByFlightRecorder() throws Exception {
+        Path file = Files.createTempFile("dbflare", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.droidlogix.dbflare.Request");
+            recording.enable("com.droidlogix.dbflare.Decode");
+            recording.start();
+            assertEquals(2, dbFlareClient.zgetList("jobsheets", null, Jobsheet.class).size());
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent request = events.stream().filter(event -> event.getEventType().getName().equals("com.droidlogix.dbflare.Request")
+                    && "jobsheets".equals(event.getString("eid"))).findFirst().orElseThrow(AssertionError::new);
+            assertEquals(Thread.currentThread().getName(), request.getThread("callerThread").getJavaName());
+            assertEquals("GET", request.getString("method"));
+            assertEquals("/zget/{eid}", request.getString("route"));
+            assertEquals(200, request.getInt("status"));
+            assertTrue(request.getLong("responseBytes") > 0);
+
+            RecordedEvent decode = events.stream().filter(event -> event.getEventType().getName().equals("com.droidlogix.dbflare.Decode")
+                    && "jobsheets".equals(event.getString("eid"))).findFirst().orElseThrow(AssertionError::new);
+            assertEquals(2, decode.getInt("rows"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.exceptions.DbFlareException;
+import com.droidlogix.dbflare.client.models.Pagination;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncClientTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/jobsheets", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[{\"idJobsheet\":1,\"documentReference\":\"JS-1\"},{\"idJobsheet\":2,\"documentReference\":\"JS-2\"}],\"total\":42}"))
+                .handle("/zget/jobsheet", exchange -> StubServer.respond(exchange, 200,
+                        "{\"total\":1,\"result\":{\"idJobsheet\":7,\"documentReference\":\"JS-7\"}}"))
+                .handle("/zget/failing", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[],\"errors\":[\"Invalid filter\",null]}"));
+    }
+
+    @Test
+    public void asyncClientDecodesInLaterStage() throws Exception {
+        Pagination pagination = new Pagination(1, 0, 2);
+        CompletableFuture<List<Jobsheet>> list = dbFlareClient.async().zgetList("jobsheets", new HashMap<>(), pagination, Jobsheet.class);
+        CompletableFuture<Jobsheet> one = dbFlareClient.async().zgetOne("jobsheet", new HashMap<>(), Jobsheet.class);
+
+        assertEquals(2, list.get(5, TimeUnit.SECONDS).size());
+        assertEquals(42, pagination.getTotal());
+        assertEquals(7, one.get(5, TimeUnit.SECONDS).getIdJobsheet());
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> dbFlareClient.async().zgetList("failing", new HashMap<>()).get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof DbFlareException);
+    }
+}
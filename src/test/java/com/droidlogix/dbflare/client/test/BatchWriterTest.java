@@ -0,0 +1,103 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.BatchWriter;
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchWriterTest extends StubServerTest {
+    private static final AtomicInteger batchRequests = new AtomicInteger();
+    private static final AtomicInteger accentedRequests = new AtomicInteger();
+    private static final AtomicInteger closingRequests = new AtomicInteger();
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zbatch", exchange -> {
+                    String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    (body.startsWith("{\"accented\"") ? accentedRequests : body.startsWith("{\"closing\"") ? closingRequests : batchRequests).incrementAndGet();
+                    StubServer.respond(exchange, 200, "{\"result\":" + body + "}");
+                });
+    }
+
+    @Test
+    public void writesOfManyEidsShareZbatchRequests() throws Exception {
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        try (BatchWriter batchWriter = dbFlareClient.newBatchWriter(6, 1024 * 1024, 1, TimeUnit.SECONDS)) {
+            for (int i = 0; i < 4; i++) {
+                Jobsheet jobsheet = new Jobsheet();
+                jobsheet.setIdJobsheet(i);
+                futures.add(batchWriter.submit(i % 2 == 0 ? "even" : "odd", jobsheet));
+            }
+            futures.add(batchWriter.submit("odd", Arrays.asList(new Jobsheet(), new Jobsheet())));
+            futures.add(batchWriter.submit("even", new Jobsheet()));
+        }
+
+        assertEquals(3.0, ((Map<?, ?>) futures.get(3).get(5, TimeUnit.SECONDS)).get("idJobsheet"));
+        assertEquals(2, ((List<?>) futures.get(4).get(5, TimeUnit.SECONDS)).size());
+        assertEquals(0.0, ((Map<?, ?>) futures.get(5).get(5, TimeUnit.SECONDS)).get("idJobsheet"));
+        assertEquals(2, batchRequests.get());
+    }
+
+    @Test
+    public void batchesAreBoundedByTheSerializedBytes() throws Exception {
+        Jobsheet jobsheet = new Jobsheet();
+        jobsheet.setDocumentReference("R\u00e9f \u2713");
+        int rowBytes = objectMapper.writeValueAsBytes(jobsheet).length;
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        try (BatchWriter batchWriter = dbFlareClient.newBatchWriter(100, 2L * rowBytes, 1, TimeUnit.SECONDS)) {
+            for (int i = 0; i < 4; i++) {
+                futures.add(batchWriter.submit("accented", jobsheet));
+            }
+        }
+
+        for (CompletableFuture<Object> future : futures) {
+            assertEquals("R\u00e9f \u2713", ((Map<?, ?>) future.get(5, TimeUnit.SECONDS)).get("documentReference"));
+        }
+        assertEquals(2, accentedRequests.get());
+    }
+
+    @Test
+    public void submissionsToAClosedWriterFail() {
+        BatchWriter batchWriter = dbFlareClient.newBatchWriter(10, 1024, 1, TimeUnit.SECONDS);
+        batchWriter.close();
+
+        CompletableFuture<Object> future = batchWriter.submit("closed", new Jobsheet());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void closingTheClientSendsTheOpenWriters() throws Exception {
+        DbFlareClient client = config()
+                .build();
+        BatchWriter batchWriter = client.newBatchWriter(10, 1024 * 1024, 10, TimeUnit.SECONDS);
+        Jobsheet jobsheet = new Jobsheet();
+        jobsheet.setIdJobsheet(5);
+        CompletableFuture<Object> future = batchWriter.submit("closing", jobsheet);
+        client.close();
+
+        assertEquals(5.0, ((Map<?, ?>) future.get(5, TimeUnit.SECONDS)).get("idJobsheet"));
+        assertEquals(1, closingRequests.get());
+        assertThrows(ExecutionException.class, () -> batchWriter.submit("closing", new Jobsheet()).get(5, TimeUnit.SECONDS));
+    }
+}
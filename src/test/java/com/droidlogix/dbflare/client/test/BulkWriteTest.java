@@ -0,0 +1,47 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.exceptions.DbFlareException;
+import com.droidlogix.dbflare.client.models.BulkResult;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkWriteTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zinsert/bulk", exchange -> {
+                    String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    StubServer.respond(exchange, 200, body.contains("\"idJobsheet\":13,")
+                            ? "{\"errors\":[\"Duplicate key\"]}" : "{\"result\":" + body + "}");
+                });
+    }
+
+    @Test
+    public void bulkInsertReportsEveryChunk() throws Exception {
+        List<Jobsheet> items = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Jobsheet jobsheet = new Jobsheet();
+            jobsheet.setIdJobsheet(i);
+            items.add(jobsheet);
+        }
+
+        BulkResult<Jobsheet> result = dbFlareClient.zinsertBulk("bulk", items, 5, 2, Jobsheet.class);
+        assertEquals(5, result.getChunks().size());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(10, result.getFailures().get(0).getFromRow());
+        assertTrue(result.getFailures().get(0).getFailure() instanceof DbFlareException);
+
+        List<Jobsheet> records = result.getResults();
+        assertEquals(20, records.size());
+        assertEquals(9, records.get(9).getIdJobsheet());
+        assertEquals(15, records.get(10).getIdJobsheet());
+    }
+}
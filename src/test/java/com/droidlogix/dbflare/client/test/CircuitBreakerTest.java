@@ -0,0 +1,89 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.exceptions.CircuitBreakerOpenException;
+import com.droidlogix.dbflare.client.models.CircuitBreakerEvent;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CircuitBreakerTest extends StubServerTest {
+    private static final AtomicInteger brokenWrites = new AtomicInteger();
+    private static final AtomicInteger laggingWrites = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zupdate/broken", exchange -> {
+                    brokenWrites.incrementAndGet();
+                    StubServer.respond(exchange, 503, "");
+                })
+                .handle("/zupdate/lagging", exchange -> {
+                    // The first write succeeds late, the next four fail at once and the probe fails late
+                    int write = laggingWrites.incrementAndGet();
+                    if (write == 1 || write == 6) {
+                        try {
+                            Thread.sleep(write == 1 ? 800 : 1200);
+                        } catch (InterruptedException ignored) {
+                        }
+                    }
+                    StubServer.respond(exchange, write == 1 ? 200 : 503, write == 1 ? "{\"result\":{}}" : "");
+                });
+    }
+
+    @Test
+    public void failingEndpointsFailFastWhileOpen() throws Exception {
+        List<CircuitBreakerEvent> events = new CopyOnWriteArrayList<>();
+        try (DbFlareClient client = config()
+                .retry(1, 0, 0, TimeUnit.MILLISECONDS)
+                .circuitBreaker(50, 100, 10, 200, TimeUnit.SECONDS)
+                .circuitBreakerWindow(4, 4, 1)
+                .onCircuitBreakerEvent(events::add)
+                .build()) {
+            for (int i = 0; i < 4; i++) {
+                client.zupdate("broken", null, new Jobsheet(), Jobsheet.class);
+            }
+            assertEquals(4, brokenWrites.get());
+
+            assertThrows(CircuitBreakerOpenException.class, () -> client.zupdate("broken", null, new Jobsheet(), Jobsheet.class));
+            assertEquals(4, brokenWrites.get());
+            assertEquals(CircuitBreakerEvent.State.OPEN, client.getCircuitBreakerStates().get("/zupdate/broken"));
+            assertEquals(1, events.size());
+            assertEquals(CircuitBreakerEvent.State.CLOSED, events.get(0).getFromState());
+            assertEquals(100f, events.get(0).getFailureRate());
+        }
+    }
+
+    @Test
+    public void callsAdmittedBeforeTheBreakerOpenedAreNotProbes() throws Exception {
+        try (DbFlareClient client = config()
+                .retry(1, 0, 0, TimeUnit.MILLISECONDS)
+                .circuitBreaker(50, 100, 10000, 200, TimeUnit.MILLISECONDS)
+                .circuitBreakerWindow(4, 4, 1)
+                .build()) {
+            CompletableFuture<Jobsheet> late = client.async().zupdate("lagging", null, new Jobsheet(), Jobsheet.class);
+            Thread.sleep(100);
+            for (int i = 0; i < 4; i++) {
+                client.zupdate("lagging", null, new Jobsheet(), Jobsheet.class);
+            }
+            assertEquals(CircuitBreakerEvent.State.OPEN, client.getCircuitBreakerStates().get("/zupdate/lagging"));
+
+            Thread.sleep(300);
+            CompletableFuture<Jobsheet> probe = client.async().zupdate("lagging", null, new Jobsheet(), Jobsheet.class);
+            late.get(5, TimeUnit.SECONDS);
+            assertEquals(CircuitBreakerEvent.State.HALF_OPEN, client.getCircuitBreakerStates().get("/zupdate/lagging"));
+
+            probe.get(5, TimeUnit.SECONDS);
+            assertEquals(CircuitBreakerEvent.State.OPEN, client.getCircuitBreakerStates().get("/zupdate/lagging"));
+            assertEquals(6, laggingWrites.get());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.models.CompressionStats;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zinsert/compressed", exchange -> {
+                    boolean gzipped = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+                    String body = new String(ByteStreams.toByteArray(gzipped ? new GZIPInputStream(exchange.getRequestBody())
+                            : exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    if (gzipped && "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                        StubServer.respondGzip(exchange, 200, "{\"result\":" + body + "}");
+                    } else {
+                        StubServer.respond(exchange, 400, "{\"errors\":[\"Expected gzip\"]}");
+                    }
+                });
+    }
+
+    @Test
+    public void bodiesAreCompressedBothWays() throws Exception {
+        List<Jobsheet> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Jobsheet jobsheet = new Jobsheet();
+            jobsheet.setIdJobsheet(i);
+            jobsheet.setDocumentReference("JS-" + i);
+            items.add(jobsheet);
+        }
+
+        try (DbFlareClient client = config()
+                .compressRequests(256)
+                .acceptCompressedResponses(true)
+                .build()) {
+            List<Jobsheet> records = client.zinsert("compressed", items, Jobsheet.class);
+            assertEquals(50, records.size());
+            assertEquals("JS-49", records.get(49).getDocumentReference());
+
+            CompressionStats stats = client.getCompressionStats();
+            assertTrue(stats.getRequestWireBytes() < stats.getRequestBytes());
+            assertTrue(stats.getResponseWireBytes() < stats.getResponseBytes());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.exceptions.ConcurrencyLimitExceededException;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimiterTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/throttled", exchange -> {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException ignored) {
+                    }
+                    StubServer.respond(exchange, 200, "{\"result\":[]}");
+                });
+    }
+
+    @Test
+    public void requestsBeyondTheConcurrencyLimitAreRejected() throws Exception {
+        try (DbFlareClient client = config()
+                .limitConcurrency(2, 1, 2)
+                .concurrencyQueue(1, 100, TimeUnit.MILLISECONDS)
+                .build()) {
+            List<CompletableFuture<List<Jobsheet>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(client.async().zgetList("throttled", null, Jobsheet.class));
+            }
+
+            int rejected = 0;
+            for (CompletableFuture<List<Jobsheet>> future : futures) {
+                try {
+                    assertTrue(future.get(5, TimeUnit.SECONDS).isEmpty());
+                } catch (ExecutionException exception) {
+                    assertTrue(exception.getCause() instanceof ConcurrencyLimitExceededException);
+                    rejected++;
+                }
+            }
+            assertEquals(2, rejected);
+            assertEquals(2, client.getConcurrencyLimitStats().getRejected());
+            assertEquals(0, client.getConcurrencyLimitStats().getInFlight());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConditionalReadTest extends StubServerTest {
+    private static final AtomicInteger polledBodies = new AtomicInteger();
+    private static final AtomicInteger revisedBodies = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/polled", exchange -> {
+                    exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                    if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        StubServer.respond(exchange, 304, "");
+                        return;
+                    }
+                    polledBodies.incrementAndGet();
+                    StubServer.respond(exchange, 200, "{\"result\":[{\"idJobsheet\":11}]}");
+                })
+                .handle("/zget/revised", exchange -> {
+                    exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                    if (exchange.getRequestHeaders().containsKey("If-None-Match")) {
+                        try {
+                            Thread.sleep(300);
+                        } catch (InterruptedException ignored) {
+                        }
+                        StubServer.respond(exchange, 304, "");
+                        return;
+                    }
+                    revisedBodies.incrementAndGet();
+                    StubServer.respond(exchange, 200, "{\"result\":[{\"idJobsheet\":13}]}");
+                })
+                .handle("/zupdate/revised", exchange -> StubServer.respond(exchange, 200, "{\"result\":{}}"));
+    }
+
+    @Test
+    public void unchangedConditionalReadsReuseTheKeptBody() throws Exception {
+        DbFlareClient client = config()
+                .conditionalReads("polled")
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            List<Jobsheet> result = client.zgetList("polled", new HashMap<>(), Jobsheet.class);
+            assertEquals(11, result.get(0).getIdJobsheet());
+        }
+        assertEquals(1, polledBodies.get());
+        client.close();
+    }
+
+    @Test
+    public void notModifiedWithoutAKeptBodyIsSentAgain() throws Exception {
+        try (DbFlareClient client = config()
+                .conditionalReads("revised")
+                .coalesceReads("revised")
+                .build()) {
+            client.zgetList("revised", null, Jobsheet.class);
+            CompletableFuture<List<Jobsheet>> revalidated = client.async().zgetList("revised", null, Jobsheet.class);
+            Thread.sleep(100);
+
+            // The write drops the kept body, the next read joins the revalidation in flight and gets its 304
+            client.zupdate("revised", null, new Jobsheet());
+            CompletableFuture<List<Jobsheet>> coalesced = client.async().zgetList("revised", null, Jobsheet.class);
+
+            assertEquals(13, revalidated.get(5, TimeUnit.SECONDS).get(0).getIdJobsheet());
+            assertEquals(13, coalesced.get(5, TimeUnit.SECONDS).get(0).getIdJobsheet());
+            assertEquals(2, revisedBodies.get());
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.gson.GsonBuilder;
-import kong.unirest.Unirest;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
@@ -50,8 +49,6 @@ public class DbFlareClientTest {
               //      .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
                 //    .useSystemProperties()
                   //  .build();
-
-            Unirest.config().verifySsl(false);
         }
         catch (Exception exception)
         {
@@ -59,6 +56,7 @@ public class DbFlareClientTest {
         }
 
         return new DbFlareClient.Config()
+                .verifySsl(false)
                 .objectMapper(getObjectMapper())
                 .baseUrl(baseURL)
                 .isKeyRequired(true)
@@ -0,0 +1,45 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.CallOptions;
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.exceptions.DeadlineExceededException;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/stalled", exchange -> {
+                    try {
+                        Thread.sleep(3000);
+                    } catch (InterruptedException ignored) {
+                    }
+                    StubServer.respond(exchange, 200, "{\"result\":[]}");
+                });
+    }
+
+    @Test
+    public void callsPastTheirDeadlineAreAborted() throws Exception {
+        try (DbFlareClient client = config()
+                .build()) {
+            long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, () -> client.withOptions(new CallOptions().timeout(200, TimeUnit.MILLISECONDS))
+                    .zgetList("stalled", null, Jobsheet.class));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+            // The aborted request gives its connection back long before the server answers
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (client.getConnectionPoolStats().getLeased() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, client.getConnectionPoolStats().getLeased());
+        }
+    }
+}
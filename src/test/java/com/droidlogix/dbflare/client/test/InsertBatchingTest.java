@@ -0,0 +1,86 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InsertBatchingTest extends StubServerTest {
+    private static final AtomicInteger insertRequests = new AtomicInteger();
+    private static final AtomicInteger lingeringRequests = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zinsert/batched", exchange -> {
+                    insertRequests.incrementAndGet();
+                    String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    StubServer.respond(exchange, 200, "{\"result\":" + body + "}");
+                })
+                .handle("/zinsert/lingering", exchange -> {
+                    lingeringRequests.incrementAndGet();
+                    String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    StubServer.respond(exchange, 200, "{\"result\":" + body + "}");
+                });
+    }
+
+    @Test
+    public void singleRowInsertsAreBatched() throws Exception {
+        DbFlareClient client = config()
+                .batchInserts("batched", 10, 1, TimeUnit.SECONDS)
+                .build();
+
+        List<CompletableFuture<Jobsheet>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Jobsheet jobsheet = new Jobsheet();
+            jobsheet.setIdJobsheet(i);
+            futures.add(client.async().zinsert("batched", jobsheet, Jobsheet.class));
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS).getIdJobsheet());
+        }
+        assertEquals(2, insertRequests.get());
+
+        Jobsheet jobsheet = new Jobsheet();
+        jobsheet.setIdJobsheet(99);
+        assertEquals(99.0, client.zinsert("batched", jobsheet).get("idJobsheet"));
+        assertEquals(3, insertRequests.get());
+        client.close();
+    }
+
+    @Test
+    public void closeSendsTheLingeringRows() throws Exception {
+        DbFlareClient client = config()
+                .batchInserts("lingering", 10, 10, TimeUnit.SECONDS)
+                .build();
+
+        List<CompletableFuture<Jobsheet>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Jobsheet jobsheet = new Jobsheet();
+            jobsheet.setIdJobsheet(i);
+            futures.add(client.async().zinsert("lingering", jobsheet, Jobsheet.class));
+        }
+        client.close();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS).getIdJobsheet());
+        }
+        assertEquals(1, lingeringRequests.get());
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> client.async().zinsert("lingering", new Jobsheet(), Jobsheet.class).get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,59 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InterceptorTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/traced", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[{\"documentReference\":\"" + exchange.getRequestHeaders().getFirst("X-Trace-Id") + "\"}]}"));
+    }
+
+    @Test
+    public void interceptorsWrapEveryCall() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        try (DbFlareClient client = config()
+                .interceptor(call -> call.header("X-Trace-Id", "trace-1").proceed()
+                        .whenComplete((response, throwable) -> calls.add(call.getMethod() + " " + call.getEid() + " " + response.getStatus())))
+                .interceptor(call -> "synthetic".equals(call.getEid())
+                        ? call.respond(200, "{\"result\":[{\"idJobsheet\":7}]}".getBytes(StandardCharsets.UTF_8))
+                        : call.proceed())
+                .build()) {
+            assertEquals("trace-1", client.<Jobsheet>zgetList("traced", null, Jobsheet.class).get(0).getDocumentReference());
+            assertEquals(7, client.<Jobsheet>zgetList("synthetic", null, Jobsheet.class).get(0).getIdJobsheet());
+            assertEquals(Arrays.asList("GET traced 200", "GET synthetic 200"), calls);
+        }
+    }
+
+    @Test
+    public void streamedReadsAreInterceptedToo() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        try (DbFlareClient client = config()
+                .interceptor(call -> call.header("X-Trace-Id", "trace-2").proceed()
+                        .whenComplete((response, throwable) -> calls.add(call.getEid() + " " + response.getStatus())))
+                .interceptor(call -> "synthetic".equals(call.getEid())
+                        ? call.respond(200, "{\"result\":[{\"idJobsheet\":7},{\"idJobsheet\":8}]}".getBytes(StandardCharsets.UTF_8))
+                        : call.proceed())
+                .build()) {
+            try (Stream<Jobsheet> rows = client.zgetStream("traced", null, Jobsheet.class)) {
+                assertEquals(Arrays.asList("trace-2"), rows.map(Jobsheet::getDocumentReference).collect(Collectors.toList()));
+            }
+            try (Stream<Jobsheet> rows = client.zgetStream("synthetic", null, Jobsheet.class)) {
+                assertEquals(Arrays.asList(7L, 8L), rows.map(Jobsheet::getIdJobsheet).collect(Collectors.toList()));
+            }
+            assertEquals(Arrays.asList("traced 200", "synthetic 200"), calls);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.models.CircuitBreakerEvent;
+import com.droidlogix.dbflare.client.models.ReplicaStats;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadBalancingTest {
+    private static final List<StubServer> replicas = new ArrayList<>();
+    private static final List<AtomicInteger> reads = new ArrayList<>();
+    private static final AtomicBoolean thirdReplicaUp = new AtomicBoolean();
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            int replica = i;
+            AtomicInteger count = new AtomicInteger();
+            reads.add(count);
+            replicas.add(new StubServer()
+                    .handle("/zget/replicated", exchange -> {
+                        count.incrementAndGet();
+                        if (replica == 2 && !thirdReplicaUp.get()) {
+                            StubServer.respond(exchange, 503, "{}");
+                            return;
+                        }
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException ignored) {
+                        }
+                        StubServer.respond(exchange, 200, "{\"result\":[{\"idJobsheet\":" + replica + "}]}");
+                    })
+                    .handle("/zget/split", exchange -> {
+                        // Only the second replica fails this endpoint
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException ignored) {
+                        }
+                        StubServer.respond(exchange, replica == 1 ? 500 : 200, replica == 1 ? "" : "{\"result\":[{\"idJobsheet\":" + replica + "}]}");
+                    })
+                    .handle("/health", exchange -> StubServer.respond(exchange, replica == 2 && !thirdReplicaUp.get() ? 503 : 200, "{}")));
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        replicas.forEach(StubServer::close);
+    }
+
+    @Test
+    public void requestsGoToTheLeastBusyReplica() throws Exception {
+        try (DbFlareClient client = new DbFlareClient.Config()
+                .objectMapper(new ObjectMapper())
+                .baseUrls(replicas.get(0).getBaseURL(), replicas.get(1).getBaseURL())
+                .build()) {
+            int first = reads.get(0).get();
+            int second = reads.get(1).get();
+
+            List<CompletableFuture<List<Jobsheet>>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(client.async().zgetList("replicated", null, Jobsheet.class));
+            }
+            for (CompletableFuture<List<Jobsheet>> future : futures) {
+                assertEquals(1, future.get(5, TimeUnit.SECONDS).size());
+            }
+
+            assertEquals(first + 3, reads.get(0).get());
+            assertEquals(second + 3, reads.get(1).get());
+        }
+    }
+
+    @Test
+    public void failingReplicasAreEjectedAndReadmitted() throws Exception {
+        try (DbFlareClient client = new DbFlareClient.Config()
+                .objectMapper(new ObjectMapper())
+                .baseUrls(replicas.get(0).getBaseURL(), replicas.get(2).getBaseURL())
+                .retry(1, 0, 0, TimeUnit.MILLISECONDS)
+                .ejectAfter(2)
+                .healthCheck("/health", 50, TimeUnit.MILLISECONDS)
+                .build()) {
+            for (int i = 0; i < 6; i++) {
+                client.zgetList("replicated", null, Jobsheet.class);
+            }
+            assertEquals(2, reads.get(2).get());
+            assertFalse(client.getReplicaStats().get(1).isHealthy());
+
+            thirdReplicaUp.set(true);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!client.getReplicaStats().get(1).isHealthy() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            ReplicaStats stats = client.getReplicaStats().get(1);
+            assertTrue(stats.isHealthy());
+            assertEquals(0, stats.getConsecutiveFailures());
+        }
+    }
+
+    @Test
+    public void everyReplicaHasItsOwnCircuitBreakers() throws Exception {
+        try (DbFlareClient client = new DbFlareClient.Config()
+                .objectMapper(new ObjectMapper())
+                .baseUrls(replicas.get(0).getBaseURL(), replicas.get(1).getBaseURL())
+                .retry(1, 0, 0, TimeUnit.MILLISECONDS)
+                .circuitBreaker(50, 100, 10, 60, TimeUnit.SECONDS)
+                .circuitBreakerWindow(4, 4, 1)
+                .ejectAfter(2)
+                .build()) {
+            List<CompletableFuture<List<Jobsheet>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(client.async().zgetList("split", null, Jobsheet.class));
+            }
+            for (CompletableFuture<List<Jobsheet>> future : futures) {
+                future.handle((result, throwable) -> result).get(5, TimeUnit.SECONDS);
+            }
+
+            Map<String, CircuitBreakerEvent.State> states = client.getCircuitBreakerStates();
+            assertEquals(CircuitBreakerEvent.State.CLOSED, states.get(replicas.get(0).getBaseURL() + "/zget/split"));
+            assertEquals(CircuitBreakerEvent.State.OPEN, states.get(replicas.get(1).getBaseURL() + "/zget/split"));
+
+            // The failing replica is ejected, the healthy one still serves the endpoint
+            assertEquals(0, client.<Jobsheet>zgetList("split", null, Jobsheet.class).get(0).getIdJobsheet());
+        }
+    }
+}
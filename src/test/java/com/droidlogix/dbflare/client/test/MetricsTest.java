@@ -0,0 +1,69 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.MetricsRegistry;
+import com.droidlogix.dbflare.client.exceptions.DbFlareException;
+import com.droidlogix.dbflare.client.models.OperationMetrics;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/jobsheets", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[{\"idJobsheet\":1,\"documentReference\":\"JS-1\"},{\"idJobsheet\":2,\"documentReference\":\"JS-2\"}],\"total\":42}"))
+                .handle("/zinsert/bulk", exchange -> {
+                    String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    StubServer.respond(exchange, 200, "{\"result\":" + body + "}");
+                })
+                .handle("/zget/missing", exchange -> StubServer.respond(exchange, 404,
+                        "{\"errors\":[\"Unknown eid\"]}"))
+                .handle("/zget/failing", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[],\"errors\":[\"Invalid filter\"]}"));
+    }
+
+    @Test
+    public void metricsAreRecordedPerOperationAndEid() throws Exception {
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        try (DbFlareClient client = config()
+                .metricsRegistry(metricsRegistry)
+                .build()) {
+            client.zgetList("jobsheets", null, Jobsheet.class);
+            client.async().zgetList("jobsheets", null, Jobsheet.class).get(5, TimeUnit.SECONDS);
+            client.zinsert("bulk", Arrays.asList(new Jobsheet()), Jobsheet.class);
+            assertThrows(DbFlareException.class, () -> client.zgetList("missing", new HashMap<>()));
+
+            OperationMetrics reads = metricsRegistry.getSnapshot("zget", "jobsheets");
+            assertEquals(2, reads.getNetworkLatency().getCount());
+            assertEquals(2, reads.getDecodeLatency().getCount());
+            assertTrue(reads.getResponseBytes() > 0);
+            assertTrue(reads.getErrors().isEmpty());
+
+            OperationMetrics inserts = metricsRegistry.getSnapshot("zinsert", "bulk");
+            assertTrue(inserts.getRequestBytes() > 0);
+            assertEquals(1, inserts.getNetworkLatency().getCount());
+
+            Map<String, Long> errors = metricsRegistry.getSnapshot("zget", "missing").getErrors();
+            assertEquals(1L, errors.get("HTTP 404"));
+            assertNull(errors.get("DbFlareException"));
+
+            assertThrows(DbFlareException.class, () -> client.zgetList("failing", new HashMap<>()));
+            errors = metricsRegistry.getSnapshot("zget", "failing").getErrors();
+            assertEquals(1, errors.size());
+            assertEquals(1L, errors.get("DbFlareException"));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.PageCursor;
+import com.droidlogix.dbflare.client.models.ConnectionPoolStats;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PaginationTest extends StubServerTest {
+    private static final int TOTAL = 25;
+    private static final AtomicInteger pagedRequests = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/paged", exchange -> {
+                    pagedRequests.incrementAndGet();
+                    respondPage(exchange, true);
+                })
+                .handle("/zget/untotalled", exchange -> respondPage(exchange, false))
+                .handle("/zget/filtered", exchange -> {
+                    String query = exchange.getRequestURI().getQuery();
+                    if (query.contains("status=open") && query.contains("status=closed")) {
+                        respondPage(exchange, true);
+                    } else {
+                        StubServer.respond(exchange, 400, "{\"errors\":[\"Missing status filter\"]}");
+                    }
+                });
+    }
+
+    @Override
+    protected DbFlareClient.Config config() {
+        return super.config().maxConnections(4, 4);
+    }
+
+    private static void respondPage(HttpExchange exchange, boolean withTotal) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        for (String item : exchange.getRequestURI().getQuery().split("&")) {
+            String[] pair = item.split("=");
+            query.put(pair[0], pair[1]);
+        }
+
+        int skip = Integer.parseInt(query.get("_skip"));
+        int take = Integer.parseInt(query.get("_take"));
+        StringBuilder sb = new StringBuilder("{\"result\":[");
+        for (int i = skip; i < Math.min(TOTAL, skip + take); i++) {
+            sb.append(i == skip ? "" : ",").append("{\"idJobsheet\":").append(i).append("}");
+        }
+        sb.append("]");
+        if (withTotal) {
+            sb.append(",\"total\":").append(TOTAL);
+        }
+        StubServer.respond(exchange, 200, sb.append("}").toString());
+    }
+
+    @Test
+    public void cursorWalksEveryPage() throws Exception {
+        try (PageCursor<Jobsheet> cursor = dbFlareClient.zgetCursor("paged", new HashMap<>(), 10, 2, Jobsheet.class)) {
+            List<Long> ids = cursor.stream().map(Jobsheet::getIdJobsheet).collect(Collectors.toList());
+            assertEquals(TOTAL, ids.size());
+            assertEquals(TOTAL - 1, (long) ids.get(TOTAL - 1));
+            assertEquals(TOTAL, cursor.getTotal());
+        }
+
+        try (PageCursor<Map<String, Object>> cursor = dbFlareClient.zgetCursor("paged", new HashMap<>(), 5, 0)) {
+            assertEquals(TOTAL, cursor.stream().parallel().count());
+        }
+    }
+
+    @Test
+    public void cursorStopsAtTheLastPageOfTheTotal() throws Exception {
+        int sent = pagedRequests.get();
+        try (PageCursor<Jobsheet> cursor = dbFlareClient.zgetCursor("paged", new HashMap<>(), TOTAL, 2, Jobsheet.class)) {
+            assertEquals(TOTAL, cursor.stream().count());
+        }
+        assertEquals(sent + 1, pagedRequests.get());
+
+        try (PageCursor<Jobsheet> cursor = dbFlareClient.zgetCursor("untotalled", new HashMap<>(), 5, 2, Jobsheet.class)) {
+            assertEquals(TOTAL, cursor.stream().count());
+        }
+    }
+
+    @Test
+    public void allPagesAreMergedInOrder() throws Exception {
+        List<Jobsheet> result = dbFlareClient.zgetAllPages("paged", new HashMap<>(), 4, 3, Jobsheet.class);
+        assertEquals(TOTAL, result.size());
+        for (int i = 0; i < TOTAL; i++) {
+            assertEquals(i, result.get(i).getIdJobsheet());
+        }
+
+        AtomicInteger rows = new AtomicInteger();
+        dbFlareClient.<Jobsheet>zgetAllPages("paged", new HashMap<>(), 4, 3, Jobsheet.class, page -> rows.addAndGet(page.size()));
+        assertEquals(TOTAL, rows.get());
+
+        ConnectionPoolStats stats = dbFlareClient.getConnectionPoolStats();
+        assertEquals(4, stats.getMax());
+        assertEquals(0, stats.getLeased());
+        assertTrue(stats.getAvailable() > 0 && stats.getAvailable() <= 4);
+    }
+
+    @Test
+    public void pagesWithoutATotalAreReadUntilAShortPage() throws Exception {
+        // 25 rows in pages of 5 end with an empty sixth page
+        for (int pageSize : new int[]{4, 5}) {
+            List<Jobsheet> result = dbFlareClient.zgetAllPages("untotalled", new HashMap<>(), pageSize, 3, Jobsheet.class);
+            assertEquals(TOTAL, result.size());
+            for (int i = 0; i < TOTAL; i++) {
+                assertEquals(i, result.get(i).getIdJobsheet());
+            }
+        }
+    }
+
+    @Test
+    public void allPagesKeepTheCollectionQueryParameters() throws Exception {
+        Map<String, Collection<?>> queryParamsCollection = new HashMap<>();
+        queryParamsCollection.put("status", Arrays.asList("open", "closed"));
+        List<Jobsheet> result = dbFlareClient.zgetAllPages("filtered", new HashMap<>(), queryParamsCollection, 10, 2, Jobsheet.class);
+        assertEquals(TOTAL, result.size());
+
+        AtomicInteger rows = new AtomicInteger();
+        dbFlareClient.<Jobsheet>zgetAllPages("filtered", new HashMap<>(), queryParamsCollection, 10, 2, Jobsheet.class, page -> rows.addAndGet(page.size()));
+        assertEquals(TOTAL, rows.get());
+    }
+}
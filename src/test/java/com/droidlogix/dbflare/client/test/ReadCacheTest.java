@@ -0,0 +1,42 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadCacheTest extends StubServerTest {
+    private static final AtomicInteger referenceRequests = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/reference", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[{\"idJobsheet\":" + referenceRequests.incrementAndGet() + "}]}"))
+                .handle("/zupdate/reference", exchange -> StubServer.respond(exchange, 200, "{\"result\":{}}"));
+    }
+
+    @Test
+    public void cachedReadsAreInvalidatedByWrites() throws Exception {
+        DbFlareClient client = config()
+                .cacheReads("reference", 1, TimeUnit.MINUTES)
+                .build();
+
+        Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put("a", 1);
+        queryParams.put("b", 2);
+        assertEquals(1, client.<Jobsheet>zgetList("reference", queryParams, Jobsheet.class).get(0).getIdJobsheet());
+        assertEquals(1, client.async().<Jobsheet>zgetList("reference", queryParams, Jobsheet.class).get(5, TimeUnit.SECONDS).get(0).getIdJobsheet());
+        assertEquals(1, client.getCacheStats().hitCount());
+
+        client.zupdate("reference", new HashMap<>(), new Jobsheet());
+        assertEquals(2, client.<Jobsheet>zgetList("reference", queryParams, Jobsheet.class).get(0).getIdJobsheet());
+        client.close();
+    }
+}
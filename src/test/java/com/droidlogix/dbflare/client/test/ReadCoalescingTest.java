@@ -0,0 +1,51 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadCoalescingTest extends StubServerTest {
+    private static final AtomicInteger slowRequests = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/slow", exchange -> {
+                    slowRequests.incrementAndGet();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException ignored) {
+                    }
+                    StubServer.respond(exchange, 200, "{\"result\":[{\"idJobsheet\":5}]}");
+                });
+    }
+
+    @Test
+    public void identicalReadsAreCoalesced() throws Exception {
+        DbFlareClient client = config()
+                .coalesceReads("slow")
+                .build();
+
+        List<CompletableFuture<List<Jobsheet>>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(client.async().zgetList("slow", new HashMap<>(), Jobsheet.class));
+        }
+        for (CompletableFuture<List<Jobsheet>> future : futures) {
+            assertEquals(5, future.get(5, TimeUnit.SECONDS).get(0).getIdJobsheet());
+        }
+        assertEquals(1, slowRequests.get());
+
+        client.zgetList("slow", new HashMap<>());
+        assertEquals(2, slowRequests.get());
+        client.close();
+    }
+}
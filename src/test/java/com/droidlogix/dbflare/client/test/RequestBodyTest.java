@@ -0,0 +1,65 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestBodyTest extends StubServerTest {
+    private static final AtomicReference<String> lastBody = new AtomicReference<>();
+    private static final AtomicReference<String> lastContentType = new AtomicReference<>();
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zinsert/echo", exchange -> {
+                    String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+                    lastBody.set(body);
+                    lastContentType.set(exchange.getRequestHeaders().getFirst("Content-Type"));
+                    StubServer.respond(exchange, 200, "{\"result\":" + body + "}");
+                });
+    }
+
+    @Override
+    protected DbFlareClient.Config config() {
+        return super.config().objectMapper(objectMapper);
+    }
+
+    @Test
+    public void payloadsRoundTripAsUtf8Bytes() throws Exception {
+        Jobsheet jobsheet = new Jobsheet();
+        jobsheet.setIdJobsheet(15);
+        jobsheet.setDocumentReference("R\u00e9f-15 \u2713");
+        jobsheet.setApplicationDate(new Date(1600000000000L));
+
+        // A single row is sent as a list of one
+        Jobsheet echoed = dbFlareClient.zinsert("echo", jobsheet, Jobsheet.class);
+        assertEquals(objectMapper.writeValueAsString(Collections.singletonList(jobsheet)), lastBody.get());
+        assertEquals("application/json;charset=UTF-8", lastContentType.get());
+        assertEquals("R\u00e9f-15 \u2713", echoed.getDocumentReference());
+        assertEquals(15, echoed.getIdJobsheet());
+
+        // Rows of mixed types are written as the object mapper writes them
+        Map<String, Object> row = new HashMap<>();
+        row.put("idJobsheet", 16);
+        List<Object> items = Arrays.asList(jobsheet, row);
+        List<Map<String, Object>> echoedItems = dbFlareClient.zinsert("echo", items);
+        assertEquals(objectMapper.writeValueAsString(items), lastBody.get());
+        assertEquals(16.0, echoedItems.get(1).get("idJobsheet"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestHedgerTest extends StubServerTest {
+    private static final AtomicInteger hedgedReads = new AtomicInteger();
+    private static final AtomicBoolean stallNextRead = new AtomicBoolean();
+    private static final AtomicInteger failoverStage = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/hedged", exchange -> {
+                    hedgedReads.incrementAndGet();
+                    if (stallNextRead.compareAndSet(true, false)) {
+                        try {
+                            Thread.sleep(3000);
+                        } catch (InterruptedException ignored) {
+                        }
+                    }
+                    StubServer.respond(exchange, 200, "{\"result\":{\"idJobsheet\":19}}");
+                })
+                .handle("/zget/failover", exchange -> {
+                    // Stage 2 is a read that fails after a while, stage 1 its hedge that succeeds later still
+                    int stage = failoverStage.getAndDecrement();
+                    if (stage > 0) {
+                        try {
+                            Thread.sleep(stage == 2 ? 300 : 600);
+                        } catch (InterruptedException ignored) {
+                        }
+                    }
+                    if (stage == 2) {
+                        StubServer.respond(exchange, 500, "");
+                        return;
+                    }
+                    StubServer.respond(exchange, 200, "{\"result\":{\"idJobsheet\":23}}");
+                });
+    }
+
+    @Test
+    public void slowReadsAreHedged() throws Exception {
+        try (DbFlareClient client = config()
+                .hedgeReads(90, 0.5, "hedged")
+                .build()) {
+            for (int i = 0; i < 30; i++) {
+                client.zgetOne("hedged", null, Jobsheet.class);
+            }
+            int sent = hedgedReads.get();
+
+            stallNextRead.set(true);
+            long start = System.nanoTime();
+            assertEquals(19, client.<Jobsheet>zgetOne("hedged", null, Jobsheet.class).getIdJobsheet());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(sent + 2, hedgedReads.get());
+
+            // The stalled read lost, it is aborted rather than left holding its connection until it answers
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (client.getConnectionPoolStats().getLeased() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, client.getConnectionPoolStats().getLeased());
+        }
+    }
+
+    @Test
+    public void serverErrorsDoNotWinOverAHedgeInFlight() throws Exception {
+        try (DbFlareClient client = config()
+                .hedgeReads(90, 0.5, "failover")
+                .build()) {
+            for (int i = 0; i < 30; i++) {
+                client.zgetOne("failover", null, Jobsheet.class);
+            }
+
+            failoverStage.set(2);
+            assertEquals(23, client.<Jobsheet>zgetOne("failover", null, Jobsheet.class).getIdJobsheet());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.CodecRegistry;
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.ResultProcessor;
+import com.droidlogix.dbflare.client.exceptions.DbFlareException;
+import com.droidlogix.dbflare.client.models.Pagination;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import kong.unirest.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultProcessorTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/jobsheets", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[{\"idJobsheet\":1,\"documentReference\":\"JS-1\"},{\"idJobsheet\":2,\"documentReference\":\"JS-2\"}],\"total\":42}"))
+                .handle("/zget/jobsheet", exchange -> StubServer.respond(exchange, 200,
+                        "{\"total\":1,\"result\":{\"idJobsheet\":7,\"documentReference\":\"JS-7\"}}"))
+                .handle("/zget/plain", exchange -> StubServer.respond(exchange, 200,
+                        "{\"idJobsheet\":9,\"documentReference\":\"JS-9\"}"))
+                .handle("/zget/dated", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":{\"idJobsheet\":3,\"applicationDate\":1600000000000}}"))
+                .handle("/zget/count", exchange -> StubServer.respond(exchange, 200, "{\"result\":12}"))
+                .handle("/zget/failing", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[],\"errors\":[\"Invalid filter\",null]}"))
+                .handle("/zget/missing", exchange -> StubServer.respond(exchange, 404,
+                        "{\"errors\":[\"Unknown eid\"]}"));
+    }
+
+    @Test
+    public void zgetListDecodesResultAndTotal() throws Exception {
+        Pagination pagination = new Pagination(1, 0, 2);
+        List<Jobsheet> result = dbFlareClient.zgetList("jobsheets", new HashMap<>(), pagination, Jobsheet.class);
+
+        assertEquals(2, result.size());
+        assertEquals("JS-2", result.get(1).getDocumentReference());
+        assertEquals(42, pagination.getTotal());
+    }
+
+    @Test
+    public void zgetOneDecodesResultObject() throws Exception {
+        Jobsheet jobsheet = dbFlareClient.zgetOne("jobsheet", new HashMap<>(), Jobsheet.class);
+        assertEquals(7, jobsheet.getIdJobsheet());
+
+        Map<String, Object> map = dbFlareClient.zgetOne("plain", new HashMap<>());
+        assertEquals("JS-9", map.get("documentReference"));
+    }
+
+    @Test
+    public void userCodecsTakePrecedence() throws Exception {
+        DbFlareClient client = config()
+                .codecRegistry(new CodecRegistry.Builder().registerTypeAdapter(Date.class, new DateDeserializer()).build())
+                .build();
+
+        Jobsheet jobsheet = client.zgetOne("dated", new HashMap<>(), Jobsheet.class);
+        assertEquals(new Date(1600000000000L), jobsheet.getApplicationDate());
+    }
+
+    @Test
+    public void zgetPrimitiveAndJSONString() throws Exception {
+        assertEquals(12, dbFlareClient.zgetLong("count", new HashMap<>()));
+        assertEquals("{\"result\":12}", dbFlareClient.zgetJSONString("count", new HashMap<>()));
+    }
+
+    @Test
+    public void errorsAreBubbled() {
+        DbFlareException exception = assertThrows(DbFlareException.class,
+                () -> dbFlareClient.zgetList("failing", new HashMap<>()));
+        assertEquals(1, exception.getErrors().size());
+
+        assertThrows(DbFlareException.class, () -> dbFlareClient.zgetList("missing", new HashMap<>()));
+    }
+
+    @Test
+    public void failedRequestsThrowTheirCause() {
+        CompletableFuture<HttpResponse<byte[]>> refused = new CompletableFuture<>();
+        refused.completeExceptionally(new ConnectException("Connection refused"));
+        assertThrows(ConnectException.class, () -> new ResultProcessor(refused).parseToListMap());
+
+        CompletableFuture<HttpResponse<byte[]>> broken = new CompletableFuture<>();
+        broken.completeExceptionally(new AssertionError("broken"));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> new ResultProcessor(broken).parse());
+        assertTrue(exception.getCause() instanceof AssertionError);
+    }
+}
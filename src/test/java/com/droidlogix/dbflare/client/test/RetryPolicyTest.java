@@ -0,0 +1,48 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RetryPolicyTest extends StubServerTest {
+    private static final AtomicInteger flakyReads = new AtomicInteger();
+    private static final AtomicInteger flakyWrites = new AtomicInteger();
+
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/flaky", exchange -> {
+                    if (flakyReads.incrementAndGet() <= 2) {
+                        StubServer.respond(exchange, 503, "");
+                        return;
+                    }
+                    StubServer.respond(exchange, 200, "{\"result\":[{\"idJobsheet\":17}]}");
+                })
+                .handle("/zupdate/flaky", exchange -> {
+                    flakyWrites.incrementAndGet();
+                    StubServer.respond(exchange, 503, "");
+                });
+    }
+
+    @Test
+    public void transientFailuresOfReadsAreRetried() throws Exception {
+        try (DbFlareClient client = config()
+                .retry(3, 10, 50, TimeUnit.MILLISECONDS)
+                .build()) {
+            List<Jobsheet> jobsheets = client.zgetList("flaky", null, Jobsheet.class);
+            assertEquals(17, jobsheets.get(0).getIdJobsheet());
+            assertEquals(3, flakyReads.get());
+
+            // Writes are only retried when enabled
+            assertNull(client.zupdate("flaky", null, new Jobsheet(), Jobsheet.class));
+            assertEquals(1, flakyWrites.get());
+        }
+    }
+}
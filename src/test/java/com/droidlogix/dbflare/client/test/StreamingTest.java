@@ -0,0 +1,128 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.exceptions.DbFlareException;
+import com.droidlogix.dbflare.client.test.models.Jobsheet;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingTest extends StubServerTest {
+    @Override
+    protected void handle(StubServer stubServer) {
+        stubServer
+                .handle("/zget/large", exchange -> {
+                    StringBuilder sb = new StringBuilder("{\"total\":20000,\"result\":[");
+                    for (int i = 0; i < 20000; i++) {
+                        sb.append(i == 0 ? "" : ",").append("{\"idJobsheet\":").append(i).append("}");
+                    }
+                    StubServer.respond(exchange, 200, sb.append("]}").toString());
+                })
+                .handle("/zget/failing", exchange -> StubServer.respond(exchange, 200,
+                        "{\"result\":[],\"errors\":[\"Invalid filter\",null]}"));
+    }
+
+    @Test
+    public void zgetStreamDecodesRowsLazily() throws Exception {
+        try (Stream<Jobsheet> stream = dbFlareClient.zgetStream("large", new HashMap<>(), Jobsheet.class)) {
+            assertEquals(20000, stream.count());
+        }
+
+        try (Stream<Map<String, Object>> stream = dbFlareClient.zgetStream("large", new HashMap<>())) {
+            assertEquals(4.0, stream.skip(4).findFirst().get().get("idJobsheet"));
+        }
+
+        try (Stream<Map<String, Object>> stream = dbFlareClient.zgetStream("failing", new HashMap<>())) {
+            RuntimeException exception = assertThrows(RuntimeException.class, stream::count);
+            assertTrue(exception.getCause() instanceof DbFlareException);
+        }
+    }
+
+    @Test
+    public void zgetPublisherHonoursDemand() throws Exception {
+        List<Jobsheet> received = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        dbFlareClient.<Jobsheet>zgetPublisher("large", new HashMap<>(), Jobsheet.class).subscribe(new Subscriber<Jobsheet>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Jobsheet jobsheet) {
+                received.add(jobsheet);
+                if (received.size() == 3) {
+                    subscription.cancel();
+                    latch.countDown();
+                } else {
+                    subscription.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, received.size());
+        assertEquals(2, received.get(2).getIdJobsheet());
+    }
+
+    @Test
+    public void invalidDemandIsSignalledFromTheEmitLoop() throws Exception {
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicReference<Thread> errorThread = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        dbFlareClient.<Jobsheet>zgetPublisher("large", new HashMap<>(), Jobsheet.class).subscribe(new Subscriber<Jobsheet>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(Jobsheet jobsheet) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+                errorThread.set(Thread.currentThread());
+                latch.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+
+        subscription.get().request(0);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(error.get() instanceof IllegalArgumentException);
+        assertNotSame(Thread.currentThread(), errorThread.get());
+    }
+}
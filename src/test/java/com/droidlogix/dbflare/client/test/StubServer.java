@@ -0,0 +1,74 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal local DbFlare stand-in used by the tests
+ */
+public class StubServer implements AutoCloseable
+{
+	private final HttpServer httpServer;
+
+	public StubServer() throws IOException
+	{
+		this.httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.httpServer.setExecutor(Executors.newCachedThreadPool());
+		this.httpServer.start();
+	}
+
+	public StubServer handle(String path, HttpHandler handler)
+	{
+		this.httpServer.createContext(path, handler);
+		return this;
+	}
+
+	public String getBaseURL()
+	{
+		return "http://127.0.0.1:" + this.httpServer.getAddress().getPort();
+	}
+
+	public static void respond(HttpExchange exchange, int status, String body) throws IOException
+	{
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		// An empty response ends the exchange at once, and the JDK server closes a connection whose request body
+		// was not read yet. Drain it first so the connection stays reusable.
+		exchange.getRequestBody().close();
+		exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		if (bytes.length > 0)
+		{
+			try (OutputStream outputStream = exchange.getResponseBody())
+			{
+				outputStream.write(bytes);
+			}
+		}
+		exchange.close();
+	}
+
+	public static void respondGzip(HttpExchange exchange, int status, String body) throws IOException
+	{
+		exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+		exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+		exchange.sendResponseHeaders(status, 0);
+		try (OutputStream outputStream = new GZIPOutputStream(exchange.getResponseBody()))
+		{
+			outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		exchange.close();
+	}
+
+	@Override
+	public void close()
+	{
+		this.httpServer.stop(0);
+	}
+}
@@ -0,0 +1,43 @@
+package com.droidlogix.dbflare.client.test;
+
+import com.droidlogix.dbflare.client.DbFlareClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+
+/**
+ * Base of the tests talking to a StubServer. The server, with the routes registered by handle, and a client built
+ * from config are started once per test class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public abstract class StubServerTest {
+    protected StubServer stubServer;
+    protected DbFlareClient dbFlareClient;
+
+    protected abstract void handle(StubServer stubServer);
+
+    /**
+     * Settings of a client of the stub server. Tests needing other settings build their own client from it.
+     */
+    protected DbFlareClient.Config config() {
+        return new DbFlareClient.Config()
+                .objectMapper(new ObjectMapper())
+                .baseUrl(stubServer.getBaseURL());
+    }
+
+    @BeforeAll
+    public void startStubServer() throws IOException {
+        stubServer = new StubServer();
+        handle(stubServer);
+        dbFlareClient = config().build();
+    }
+
+    @AfterAll
+    public void stopStubServer() {
+        dbFlareClient.close();
+        stubServer.close();
+    }
+}